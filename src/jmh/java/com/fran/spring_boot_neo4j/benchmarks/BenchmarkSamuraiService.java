@@ -0,0 +1,44 @@
+package com.fran.spring_boot_neo4j.benchmarks;
+
+import com.fran.spring_boot_neo4j.cache.SamuraiCache;
+import com.fran.spring_boot_neo4j.graph.GenealogyGraphProjection;
+import com.fran.spring_boot_neo4j.repositories.SamuraiRepository;
+import com.fran.spring_boot_neo4j.repositories.SamuraiTraversalRepository;
+import com.fran.spring_boot_neo4j.services.OffspringTreeLoader;
+import com.fran.spring_boot_neo4j.services.SamuraiBatchLoader;
+import com.fran.spring_boot_neo4j.services.SamuraiService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Creates the {@link SamuraiService} the tree benchmarks measure.
+ */
+final class BenchmarkSamuraiService {
+
+    private BenchmarkSamuraiService() {
+    }
+
+    /**
+     * Creates a service that never publishes events and whose tree bounds, normally set from
+     * {@code app.samurai.tree}, are raised so that no {@link TreeShape} is cut.
+     *
+     * @param samuraiRepository          the repository serving the tree
+     * @param samuraiTraversalRepository the traversal repository, or {@code null} if unused
+     * @param projection                 the genealogy graph projection
+     * @return the service
+     */
+    static SamuraiService create(SamuraiRepository samuraiRepository,
+        SamuraiTraversalRepository samuraiTraversalRepository,
+        GenealogyGraphProjection projection) {
+        SamuraiService samuraiService = new SamuraiService(samuraiRepository,
+            samuraiTraversalRepository, new SamuraiCache(100, Duration.ofHours(1)),
+            new SamuraiBatchLoader(samuraiRepository, Duration.ZERO, 100,
+                new SimpleMeterRegistry()),
+            projection, new OffspringTreeLoader(samuraiRepository, 1000, 1), event -> { },
+            new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(samuraiService, "maxTreeDepth", TreeShape.MAX_DEPTH);
+        ReflectionTestUtils.setField(samuraiService, "maxTreeNodes", TreeShape.MAX_DESCENDANTS);
+        return samuraiService;
+    }
+}
@@ -0,0 +1,67 @@
+package com.fran.spring_boot_neo4j.benchmarks;
+
+import com.fran.spring_boot_neo4j.graph.GenealogyGraph;
+import com.fran.spring_boot_neo4j.graph.GenealogyGraphProjection;
+import com.fran.spring_boot_neo4j.objects.SamuraiDTO;
+import com.fran.spring_boot_neo4j.repositories.SamuraiRepository;
+import com.fran.spring_boot_neo4j.repositories.SamuraiTraversalRepository;
+import com.fran.spring_boot_neo4j.services.SamuraiService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the in-memory assembly of a samurai tree, i.e. collecting the edges generation by
+ * generation, laying out the tree and {@code convertToDTO}, without any database round trip.
+ * With the {@code GRAPH} source the edges are traversed in the {@link GenealogyGraph} instead of
+ * being served by a stub repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SamuraiTreeBenchmark {
+
+    @Param({"CHAIN", "FAN_OUT", "BALANCED"})
+    private TreeShape shape;
+
+    @Param({"QUERY", "GRAPH"})
+    private String source;
+
+    private SamuraiService samuraiService;
+
+    @Setup
+    public void setUp() {
+        SamuraiTraversalRepository traversalRepository = new SamuraiTraversalRepository(null) {
+            @Override
+            public GenealogyGraph loadGenealogyGraph() {
+                return shape.graph();
+            }
+        };
+        GenealogyGraphProjection projection =
+            new GenealogyGraphProjection(traversalRepository, source.equals("GRAPH"));
+        if (projection.isEnabled()) {
+            projection.load();
+        }
+
+        SamuraiRepository samuraiRepository = StubSamuraiRepository.of(shape.root(), shape.edges());
+        samuraiService =
+            BenchmarkSamuraiService.create(samuraiRepository, traversalRepository, projection);
+    }
+
+    @Benchmark
+    public SamuraiDTO buildTree() {
+        return samuraiService.getSamuraiTree(TreeShape.ROOT_IDENTIFIER);
+    }
+}
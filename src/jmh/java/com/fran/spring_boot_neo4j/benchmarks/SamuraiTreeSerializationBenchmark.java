@@ -0,0 +1,77 @@
+package com.fran.spring_boot_neo4j.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.StreamWriteConstraints;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fran.spring_boot_neo4j.graph.GenealogyGraphProjection;
+import com.fran.spring_boot_neo4j.objects.FlatSamuraiTreeDTO;
+import com.fran.spring_boot_neo4j.objects.SamuraiDTO;
+import com.fran.spring_boot_neo4j.repositories.SamuraiRepository;
+import com.fran.spring_boot_neo4j.requests.OffspringTreeRequest;
+import com.fran.spring_boot_neo4j.services.SamuraiService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the Jackson serialization of deep and wide {@link SamuraiDTO} trees, nested and in
+ * flat form.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// Jackson writes nested objects recursively, several frames per generation of the chain
+@Fork(value = 1, jvmArgsAppend = "-Xss16m")
+public class SamuraiTreeSerializationBenchmark {
+
+    @Param({"CHAIN", "FAN_OUT", "BALANCED"})
+    private TreeShape shape;
+
+    private ObjectMapper objectMapper;
+    private SamuraiDTO tree;
+    private FlatSamuraiTreeDTO flatTree;
+
+    @Setup
+    public void setUp() {
+        // Jackson refuses to write more than 1,000 nested levels by default, which the chain
+        // exceeds; the limit is raised here so the cost of deep trees can be measured at all
+        JsonFactory jsonFactory = JsonFactory.builder()
+            .streamWriteConstraints(StreamWriteConstraints.builder().maxNestingDepth(100_000)
+                .build())
+            .build();
+        objectMapper = new ObjectMapper(jsonFactory)
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        SamuraiRepository samuraiRepository = StubSamuraiRepository.of(shape.root(), shape.edges());
+        SamuraiService samuraiService = BenchmarkSamuraiService.create(samuraiRepository, null,
+            new GenealogyGraphProjection(null, false));
+        tree = samuraiService.getSamuraiTree(TreeShape.ROOT_IDENTIFIER);
+        flatTree = samuraiService.getFlatSamuraiTree(TreeShape.ROOT_IDENTIFIER,
+            new OffspringTreeRequest());
+    }
+
+    @Benchmark
+    public byte[] serializeTree() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(tree);
+    }
+
+    @Benchmark
+    public byte[] serializeFlatTree() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(flatTree);
+    }
+}
@@ -0,0 +1,52 @@
+package com.fran.spring_boot_neo4j.benchmarks;
+
+import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiTreeEdgeQueryResult;
+import com.fran.spring_boot_neo4j.repositories.SamuraiRepository;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory stand-in for {@link SamuraiRepository} serving a single pre-built tree.
+ */
+final class StubSamuraiRepository {
+
+    private StubSamuraiRepository() {
+    }
+
+    /**
+     * Creates a repository answering the lookups used to assemble a tree. The relationship type
+     * passed to the generation query is ignored. Every other method fails with
+     * {@link UnsupportedOperationException}.
+     *
+     * @param root  the root samurai
+     * @param edges the edges of the tree
+     * @return the stub repository
+     */
+    static SamuraiRepository of(Samurai root, List<SamuraiTreeEdgeQueryResult> edges) {
+        Map<String, List<SamuraiTreeEdgeQueryResult>> edgesByParent = new HashMap<>();
+        for (SamuraiTreeEdgeQueryResult edge : edges) {
+            if (edge.getParentIdentifier() != null) {
+                edgesByParent.computeIfAbsent(edge.getParentIdentifier(), key -> new ArrayList<>())
+                    .add(edge);
+            }
+        }
+        return (SamuraiRepository) Proxy.newProxyInstance(SamuraiRepository.class.getClassLoader(),
+            new Class<?>[] {SamuraiRepository.class}, (proxy, method, args) -> switch (
+                method.getName()) {
+                case "findSamuraiByIdentifier" -> root.getIdentifier().equals(args[0])
+                    ? Optional.of(root) : Optional.empty();
+                case "findOffspringEdgesByParentIdentifiers" -> ((List<?>) args[0]).stream()
+                    .flatMap(parent -> edgesByParent.getOrDefault(parent, List.of()).stream())
+                    .toList();
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> "StubSamuraiRepository";
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
@@ -0,0 +1,128 @@
+package com.fran.spring_boot_neo4j.benchmarks;
+
+import com.fran.spring_boot_neo4j.graph.GenealogyGraph;
+import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.models.enums.BirthSex;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiTreeEdgeQueryResult;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shapes of samurai trees used by the benchmarks.
+ */
+public enum TreeShape {
+
+    /**
+     * A single line of 10,000 generations.
+     */
+    CHAIN(1, 10_000),
+
+    /**
+     * A root with 1,000 direct offspring.
+     */
+    FAN_OUT(1_000, 1),
+
+    /**
+     * Four generations of ten offspring each, 11,110 descendants in total.
+     */
+    BALANCED(10, 4);
+
+    /**
+     * Identifier of the root samurai of every shape.
+     */
+    public static final String ROOT_IDENTIFIER = "root";
+
+    /**
+     * The most generations below the root of any shape.
+     */
+    public static final int MAX_DEPTH = 10_000;
+
+    /**
+     * The most descendants of the root of any shape.
+     */
+    public static final int MAX_DESCENDANTS = 11_110;
+
+    private final int branching;
+    private final int depth;
+
+    TreeShape(int branching, int depth) {
+        this.branching = branching;
+        this.depth = depth;
+    }
+
+    /**
+     * Creates the root samurai of the tree.
+     *
+     * @return the root samurai
+     */
+    public Samurai root() {
+        return samurai(ROOT_IDENTIFIER);
+    }
+
+    /**
+     * Creates the edges of the tree in breadth-first order, as returned by
+     * {@code OffspringTreeLoader.findOffspringTreeEdges}, starting with the root row.
+     *
+     * @return the edges of the tree
+     */
+    public List<SamuraiTreeEdgeQueryResult> edges() {
+        List<SamuraiTreeEdgeQueryResult> edges = new ArrayList<>();
+        edges.add(edge(null, ROOT_IDENTIFIER, 0));
+        for (int i = 0; i < edges.size(); i++) {
+            SamuraiTreeEdgeQueryResult parent = edges.get(i);
+            for (String identifier : parent.getOffspringIdentifiers()) {
+                edges.add(edge(parent.getOffspring().getIdentifier(), identifier,
+                    parent.getDepth() + 1));
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Creates the in-memory genealogy graph holding the tree.
+     *
+     * @return the genealogy graph
+     */
+    public GenealogyGraph graph() {
+        GenealogyGraph.Builder builder = GenealogyGraph.builder();
+        for (SamuraiTreeEdgeQueryResult edge : edges()) {
+            Samurai samurai = edge.getOffspring();
+            builder.addSamurai(samurai);
+            if (edge.getParentIdentifier() != null) {
+                builder.addRelationship(edge.getParentIdentifier(), samurai.getIdentifier(),
+                    edge.getRelationshipType());
+            }
+        }
+        return builder.build();
+    }
+
+    private SamuraiTreeEdgeQueryResult edge(String parentIdentifier, String identifier,
+        long level) {
+        List<String> offspringIdentifiers = new ArrayList<>();
+        if (level < depth) {
+            for (int i = 0; i < branching; i++) {
+                offspringIdentifiers.add(identifier + "." + i);
+            }
+        }
+        SamuraiTreeEdgeQueryResult edge = new SamuraiTreeEdgeQueryResult();
+        edge.setParentIdentifier(parentIdentifier);
+        edge.setOffspring(samurai(identifier));
+        edge.setRelationshipType(parentIdentifier != null ? "BIOLOGICAL" : null);
+        edge.setDepth(level);
+        edge.setOffspringIdentifiers(offspringIdentifiers);
+        return edge;
+    }
+
+    private static Samurai samurai(String identifier) {
+        Samurai samurai = new Samurai();
+        samurai.setIdentifier(identifier);
+        samurai.setGivenName("Given " + identifier);
+        samurai.setFamilyName("Family");
+        samurai.setNickName("Nick " + identifier);
+        samurai.setSex(BirthSex.MALE);
+        samurai.setBirthDate(LocalDate.of(1543, 1, 31));
+        samurai.setDeathDate(LocalDate.of(1616, 6, 1));
+        return samurai;
+    }
+}
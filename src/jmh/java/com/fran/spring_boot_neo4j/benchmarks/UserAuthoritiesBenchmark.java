@@ -0,0 +1,51 @@
+package com.fran.spring_boot_neo4j.benchmarks;
+
+import com.fran.spring_boot_neo4j.models.User;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Measures {@link User#getAuthorities()} on a user seen before and on a freshly loaded user.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserAuthoritiesBenchmark {
+
+    private static final String ROLES = "ROLE_USER,ROLE_ADMIN,ROLE_EDITOR";
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User();
+        user.setUsername("musashi");
+        user.setRoles(ROLES);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> repeatedLookup() {
+        return user.getAuthorities();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> firstLookup() {
+        // Resetting the roles discards the authorities computed by the previous call
+        user.setRoles(ROLES);
+        return user.getAuthorities();
+    }
+}
@@ -0,0 +1,113 @@
+package com.fran.spring_boot_neo4j.bulkhead;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Limits how many callers may run a group of operations at the same time.
+ * <p>
+ * A caller that finds every permit taken waits up to the configured time for one to be released
+ * and is rejected afterwards. This keeps a burst of requests, which is cheap to accept once
+ * requests run on virtual threads, from exhausting the Neo4j driver's connection pool.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final Duration maxWait;
+    private final Semaphore semaphore;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructs a new {@code Bulkhead}.
+     *
+     * @param name          the name of the bulkhead
+     * @param maxConcurrent the maximum number of concurrent callers
+     * @param maxWait       the maximum time a caller waits for a permit
+     */
+    public Bulkhead(String name, int maxConcurrent, Duration maxWait) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be positive: " + maxConcurrent);
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWait = maxWait;
+        this.semaphore = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Acquires a permit, waiting up to the configured time. Every successful call must be
+     * followed by {@link #release()}.
+     *
+     * @return {@code true} if a permit was acquired, {@code false} if the caller was rejected
+     */
+    public boolean tryAcquire() {
+        if (semaphore.tryAcquire()) {
+            return true;
+        }
+
+        queued.incrementAndGet();
+        try {
+            if (semaphore.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            queued.decrementAndGet();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Releases a permit acquired with {@link #tryAcquire()}.
+     */
+    public void release() {
+        semaphore.release();
+    }
+
+    /**
+     * Runs an action while holding a permit.
+     *
+     * @param action the action to run
+     * @param <T>    the result type of the action
+     * @return the result of the action
+     * @throws BulkheadFullException if no permit could be acquired in time
+     */
+    public <T> T execute(Supplier<T> action) {
+        if (!tryAcquire()) {
+            throw new BulkheadFullException(name);
+        }
+        try {
+            return action.get();
+        } finally {
+            release();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getActive() {
+        return maxConcurrent - semaphore.availablePermits();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
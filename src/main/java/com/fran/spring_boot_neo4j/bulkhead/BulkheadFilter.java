@@ -0,0 +1,158 @@
+package com.fran.spring_boot_neo4j.bulkhead;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Servlet filter that runs every tree read and every samurai write inside its {@link Bulkhead}.
+ * Samurai lookups are posted only because their identifiers do not fit into a query string, so
+ * they are not treated as writes.
+ * <p>
+ * The filter is placed in front of the security filter chain so that a
+ * {@link BulkheadFullException} thrown during authentication is answered here as well. Rejected
+ * requests are answered with 503 and a {@code Retry-After} header. For asynchronous responses,
+ * such as streamed trees, the permit is held until the response has completed.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadFilter.class);
+
+    private static final String SAMURAI_PATH = "/api/v1/samurai/";
+    private static final String LOOKUP_PATH = "/api/v1/samurai/lookup";
+    private static final String[] TREE_PATHS = {
+        "/api/v1/samurai/offspring/",
+        "/api/v1/reactive/samurai/offspring/"
+    };
+
+    private final Bulkhead treeBulkhead;
+    private final Bulkhead writeBulkhead;
+
+    /**
+     * Constructs a new {@code BulkheadFilter}.
+     *
+     * @param treeBulkhead  the bulkhead for tree reads
+     * @param writeBulkhead the bulkhead for samurai writes
+     */
+    public BulkheadFilter(@Qualifier("treeBulkhead") Bulkhead treeBulkhead,
+        @Qualifier("writeBulkhead") Bulkhead writeBulkhead) {
+        this.treeBulkhead = treeBulkhead;
+        this.writeBulkhead = writeBulkhead;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+        FilterChain filterChain) throws ServletException, IOException {
+        Bulkhead bulkhead = bulkheadFor(request);
+        if (bulkhead != null && !bulkhead.tryAcquire()) {
+            reject(response, bulkhead.getName());
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } catch (BulkheadFullException e) {
+            if (response.isCommitted()) {
+                throw e;
+            }
+            reject(response, e.getBulkheadName());
+        } finally {
+            if (bulkhead != null) {
+                if (request.isAsyncStarted()) {
+                    request.getAsyncContext().addListener(new ReleasingAsyncListener(bulkhead));
+                } else {
+                    bulkhead.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines the bulkhead a request belongs to.
+     *
+     * @param request the request
+     * @return the bulkhead, or {@code null} if the request is not limited
+     */
+    private Bulkhead bulkheadFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (HttpMethod.GET.matches(request.getMethod())) {
+            for (String treePath : TREE_PATHS) {
+                if (path.startsWith(treePath)) {
+                    return treeBulkhead;
+                }
+            }
+            return null;
+        }
+        if (path.startsWith(SAMURAI_PATH) && !path.equals(LOOKUP_PATH)
+            && !HttpMethod.HEAD.matches(request.getMethod())
+            && !HttpMethod.OPTIONS.matches(request.getMethod())) {
+            return writeBulkhead;
+        }
+        return null;
+    }
+
+    private static void reject(HttpServletResponse response, String bulkheadName)
+        throws IOException {
+        logger.warn("Request rejected by bulkhead {}", bulkheadName);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(),
+            "Too many concurrent requests, try again later");
+    }
+
+    /**
+     * Releases the permit of an asynchronous request once, whichever way the request ends.
+     */
+    private static final class ReleasingAsyncListener implements AsyncListener {
+
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleasingAsyncListener(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // The listener has to be registered again for a new async cycle
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.fran.spring_boot_neo4j.bulkhead;
+
+/**
+ * Thrown when a {@link Bulkhead} rejects a caller because no permit became available in time.
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    private final String bulkheadName;
+
+    /**
+     * Constructs a new {@code BulkheadFullException}.
+     *
+     * @param bulkheadName the name of the bulkhead that rejected the caller
+     */
+    public BulkheadFullException(String bulkheadName) {
+        super("Bulkhead '" + bulkheadName + "' is full");
+        this.bulkheadName = bulkheadName;
+    }
+
+    public String getBulkheadName() {
+        return bulkheadName;
+    }
+}
@@ -0,0 +1,91 @@
+package com.fran.spring_boot_neo4j.cache;
+
+import com.fran.spring_boot_neo4j.events.GenealogyChangedEvent;
+import com.fran.spring_boot_neo4j.objects.KinshipPathDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-process cache of kinship paths keyed by the pair of samurai.
+ * <p>
+ * Pairs without a path are cached as well. A pair is cached once whichever way round it was
+ * requested, and the path is reversed for the other direction. Since any new or removed
+ * relationship may shorten or break paths between samurai far away from it, the whole cache is
+ * cleared when a {@link GenealogyChangedEvent} is published.
+ * <p>
+ * Paths are searched outside the cache, so a slow search holds no lock of the cache. A path
+ * searched while a change is being applied may predate it, so it is only kept if no change was
+ * announced since the search started.
+ */
+@Component
+public class KinshipCache {
+
+    private final Cache<PairKey, Optional<KinshipPathDTO>> cache;
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * Constructs a new {@code KinshipCache}.
+     *
+     * @param maximumSize      the maximum number of cached pairs
+     * @param expireAfterWrite the time after which a cached path is searched again
+     */
+    public KinshipCache(@Value("${app.cache.kinship.maximum-size:10000}") long maximumSize,
+        @Value("${app.cache.kinship.expire-after-write:1h}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .build();
+    }
+
+    /**
+     * Returns the cached path between two samurai, searching it on a miss.
+     *
+     * @param fromIdentifier the identifier of the samurai the path starts from
+     * @param toIdentifier   the identifier of the samurai the path ends at
+     * @param loader         the search for the path
+     * @return an {@link Optional} containing the path, or empty if there is none
+     */
+    public Optional<KinshipPathDTO> get(String fromIdentifier, String toIdentifier,
+        Supplier<Optional<KinshipPathDTO>> loader) {
+        boolean swapped = fromIdentifier.compareTo(toIdentifier) > 0;
+        PairKey key = swapped
+            ? new PairKey(toIdentifier, fromIdentifier) : new PairKey(fromIdentifier, toIdentifier);
+        Optional<KinshipPathDTO> path = cache.getIfPresent(key);
+        if (path != null) {
+            return swapped ? path.map(KinshipPathDTO::reversed) : path;
+        }
+
+        long changesBefore = changes.get();
+        path = loader.get();
+        cache.put(key, swapped ? path.map(KinshipPathDTO::reversed) : path);
+        if (changes.get() != changesBefore) {
+            // A change was announced while searching, the path may predate it
+            cache.invalidate(key);
+        }
+        return path;
+    }
+
+    /**
+     * Clears the cache after the genealogy has changed.
+     *
+     * @param event the event naming the changed samurai
+     */
+    @EventListener
+    public void onGenealogyChanged(GenealogyChangedEvent event) {
+        changes.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Cache key made of the identifiers of both samurai, the lower one first.
+     */
+    private record PairKey(String lowerIdentifier, String higherIdentifier) {
+    }
+}
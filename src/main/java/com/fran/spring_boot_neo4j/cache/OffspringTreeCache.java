@@ -0,0 +1,126 @@
+package com.fran.spring_boot_neo4j.cache;
+
+import com.fran.spring_boot_neo4j.events.GenealogyChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * In-process cache of serialized offspring tree responses, keyed by root samurai, entity tag and
+ * format.
+ * <p>
+ * The cache is bounded by the total size of the cached responses rather than their number, and
+ * evicts the least valuable responses first. A tree contains the samurai below its root, so a
+ * changed samurai affects the trees of its ancestors and its own. Every
+ * {@link GenealogyChangedEvent} names the changed samurai together with all their ancestors, and
+ * the trees rooted at any of them are removed.
+ * <p>
+ * A response built while a change is being applied may hold data from before the change, so it
+ * is only kept if no change was announced since it started. The event is handled after the other
+ * listeners have dropped their own copies of the changed samurai.
+ */
+@Component
+public class OffspringTreeCache {
+
+    // Approximate size of an entry besides the response itself
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final Cache<TreeKey, byte[]> cache;
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * Constructs a new {@code OffspringTreeCache}.
+     *
+     * @param maximumSize      the maximum total size of the cached responses
+     * @param expireAfterWrite the time after which a cached response is built again
+     */
+    public OffspringTreeCache(@Value("${app.cache.tree.maximum-size:64MB}") DataSize maximumSize,
+        @Value("${app.cache.tree.expire-after-write:1h}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maximumSize.toBytes())
+            .weigher((TreeKey key, byte[] response) -> ENTRY_OVERHEAD + 2 * (
+                key.rootIdentifier().length() + key.eTag().length()) + response.length)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Returns the cached response for a tree, building it on a miss.
+     *
+     * @param rootIdentifier the identifier of the root samurai
+     * @param eTag           the entity tag of the tree, which identifies its version and bounds
+     * @param format         the format of the response
+     * @param builder        the function building and serializing the tree
+     * @return the serialized tree
+     */
+    public byte[] get(String rootIdentifier, String eTag, String format,
+        Supplier<byte[]> builder) {
+        TreeKey key = new TreeKey(rootIdentifier, eTag, format);
+        byte[] response = cache.getIfPresent(key);
+        if (response != null) {
+            return response;
+        }
+
+        long changesBefore = changes.get();
+        response = builder.get();
+        cache.put(key, response);
+        if (changes.get() != changesBefore) {
+            // A change was announced while building, the response may predate it
+            cache.invalidate(key);
+        }
+        return response;
+    }
+
+    /**
+     * Removes the trees rooted at the changed samurai and their ancestors.
+     *
+     * @param event the event naming the changed samurai and their ancestors
+     */
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onGenealogyChanged(GenealogyChangedEvent event) {
+        changes.incrementAndGet();
+        if (event.isEverything()) {
+            cache.invalidateAll();
+        } else {
+            Set<String> identifiers = new HashSet<>(event.getIdentifiers());
+            cache.asMap().keySet().removeIf(key -> identifiers.contains(key.rootIdentifier()));
+        }
+    }
+
+    /**
+     * Returns the hit, miss and eviction statistics of the cache.
+     *
+     * @return a snapshot of the cache statistics
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the approximate number of cached responses.
+     *
+     * @return the estimated size of the cache
+     */
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Cache key made of the root of the tree, its entity tag and the format of the response.
+     */
+    private record TreeKey(String rootIdentifier, String eTag, String format) {
+    }
+}
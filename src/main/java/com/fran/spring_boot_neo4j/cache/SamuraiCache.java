@@ -0,0 +1,169 @@
+package com.fran.spring_boot_neo4j.cache;
+
+import com.fran.spring_boot_neo4j.events.GenealogyChangedEvent;
+import com.fran.spring_boot_neo4j.models.Samurai;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-process cache of {@link Samurai} entities keyed by identifier.
+ * <p>
+ * Entries are evicted once the cache exceeds its maximum size or when they are older than the
+ * configured time to live. Missing samurai are never cached, and changed samurai are removed when
+ * a {@link GenealogyChangedEvent} is published.
+ */
+@Component
+public class SamuraiCache {
+
+    private final Cache<String, Samurai> cache;
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * Constructs a new {@code SamuraiCache}.
+     *
+     * @param maximumSize      the maximum number of cached samurai
+     * @param expireAfterWrite the time after which a cached samurai is reloaded
+     */
+    public SamuraiCache(@Value("${app.cache.samurai.maximum-size:10000}") long maximumSize,
+        @Value("${app.cache.samurai.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Returns the cached samurai, loading it on a miss.
+     * <p>
+     * The loader runs outside of the cache, since it may wait for a batch of lookups and must not
+     * hold a lock of the cache meanwhile. The loaded samurai is dropped again if a removal
+     * happened while it was loaded.
+     *
+     * @param identifier the identifier of the samurai
+     * @param loader     the function loading the samurai from the database
+     * @return an {@link Optional} containing the samurai, or empty if it does not exist
+     */
+    public Optional<Samurai> get(String identifier, Function<String, Optional<Samurai>> loader) {
+        Samurai cached = cache.getIfPresent(identifier);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        long changesBefore = changes.get();
+        Optional<Samurai> loaded = loader.apply(identifier);
+        loaded.ifPresent(samurai -> {
+            cache.asMap().putIfAbsent(identifier, samurai);
+            if (changes.get() != changesBefore) {
+                // A change was announced while loading, the samurai may predate it
+                cache.invalidate(identifier);
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Returns the cached samurai with the given identifiers, loading all misses at once.
+     * <p>
+     * Like with {@link #get(String, Function)}, the loaded samurai are dropped again if a removal
+     * happened while they were loaded.
+     *
+     * @param identifiers the identifiers of the samurai
+     * @param loader      the function loading the missing samurai from the database
+     * @return the found samurai by identifier; identifiers without a samurai are left out
+     */
+    public Map<String, Samurai> getAll(Collection<String> identifiers,
+        Function<Collection<String>, List<Samurai>> loader) {
+        Map<String, Samurai> found = new HashMap<>(cache.getAllPresent(identifiers));
+        List<String> missing = identifiers.stream()
+            .filter(identifier -> !found.containsKey(identifier))
+            .toList();
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        long changesBefore = changes.get();
+        List<Samurai> loaded = loader.apply(missing);
+        for (Samurai samurai : loaded) {
+            found.put(samurai.getIdentifier(), samurai);
+            cache.asMap().putIfAbsent(samurai.getIdentifier(), samurai);
+        }
+        if (changes.get() != changesBefore) {
+            // A change was announced while loading, the samurai may predate it
+            cache.invalidateAll(loaded.stream().map(Samurai::getIdentifier).toList());
+        }
+        return found;
+    }
+
+    /**
+     * Removes a samurai from the cache.
+     *
+     * @param identifier the identifier of the samurai
+     */
+    public void invalidate(String identifier) {
+        if (identifier != null) {
+            changes.incrementAndGet();
+            cache.invalidate(identifier);
+        }
+    }
+
+    /**
+     * Removes several samurai from the cache.
+     *
+     * @param identifiers the identifiers of the samurai
+     */
+    public void invalidateAll(Collection<String> identifiers) {
+        changes.incrementAndGet();
+        cache.invalidateAll(identifiers);
+    }
+
+    /**
+     * Removes the changed samurai from the cache.
+     * <p>
+     * Runs before the {@link OffspringTreeCache} drops the affected trees, so no tree is cached
+     * from the stale copy.
+     *
+     * @param event the event naming the changed samurai
+     */
+    @EventListener
+    @Order(0)
+    public void onGenealogyChanged(GenealogyChangedEvent event) {
+        if (event.isEverything()) {
+            changes.incrementAndGet();
+            cache.invalidateAll();
+        } else {
+            invalidateAll(event.getIdentifiers());
+        }
+    }
+
+    /**
+     * Returns the hit, miss and eviction statistics of the cache.
+     *
+     * @return a snapshot of the cache statistics
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the approximate number of cached samurai.
+     *
+     * @return the estimated size of the cache
+     */
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+}
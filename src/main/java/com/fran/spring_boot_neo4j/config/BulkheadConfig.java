@@ -0,0 +1,56 @@
+package com.fran.spring_boot_neo4j.config;
+
+import com.fran.spring_boot_neo4j.bulkhead.Bulkhead;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the bulkheads limiting concurrent access to Neo4j per endpoint group.
+ * <p>
+ * The sum of the permits should stay below the size of the driver's connection pool
+ * ({@code spring.neo4j.pool.max-connection-pool-size}, 100 by default).
+ */
+@Configuration
+public class BulkheadConfig {
+
+    /**
+     * Provides the bulkhead for tree reads.
+     *
+     * @param maxConcurrent the maximum number of concurrent tree reads
+     * @param maxWait       the maximum time a tree read waits for a permit
+     * @return the tree bulkhead
+     */
+    @Bean
+    Bulkhead treeBulkhead(@Value("${app.bulkhead.tree.max-concurrent:32}") int maxConcurrent,
+        @Value("${app.bulkhead.tree.max-wait:2s}") Duration maxWait) {
+        return new Bulkhead("tree", maxConcurrent, maxWait);
+    }
+
+    /**
+     * Provides the bulkhead for samurai writes.
+     *
+     * @param maxConcurrent the maximum number of concurrent writes
+     * @param maxWait       the maximum time a write waits for a permit
+     * @return the write bulkhead
+     */
+    @Bean
+    Bulkhead writeBulkhead(@Value("${app.bulkhead.write.max-concurrent:16}") int maxConcurrent,
+        @Value("${app.bulkhead.write.max-wait:1s}") Duration maxWait) {
+        return new Bulkhead("write", maxConcurrent, maxWait);
+    }
+
+    /**
+     * Provides the bulkhead for authentications that are not served from the cache.
+     *
+     * @param maxConcurrent the maximum number of concurrent authentications
+     * @param maxWait       the maximum time an authentication waits for a permit
+     * @return the authentication bulkhead
+     */
+    @Bean
+    Bulkhead authBulkhead(@Value("${app.bulkhead.auth.max-concurrent:16}") int maxConcurrent,
+        @Value("${app.bulkhead.auth.max-wait:1s}") Duration maxWait) {
+        return new Bulkhead("auth", maxConcurrent, maxWait);
+    }
+}
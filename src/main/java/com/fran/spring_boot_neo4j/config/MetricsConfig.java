@@ -0,0 +1,53 @@
+package com.fran.spring_boot_neo4j.config;
+
+import com.fran.spring_boot_neo4j.metrics.RepositoryQueryCounter;
+import org.neo4j.driver.MetricsAdapter;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.neo4j.ConfigBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Metrics configuration for the application.
+ * <p>
+ * Timers per repository method ({@code spring.data.repository.invocations}) and per HTTP endpoint
+ * ({@code http.server.requests}) are provided by Spring Boot. This configuration adds the
+ * connection pool metrics of the Neo4j driver and the repository queries per request.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Publishes the connection pool metrics of the Neo4j driver, such as
+     * {@code neo4j.driver.connections.acquisition} and {@code neo4j.driver.connections.in.use},
+     * to Micrometer's global registry.
+     *
+     * @return the customizer enabling the driver metrics
+     */
+    @Bean
+    ConfigBuilderCustomizer neo4jDriverMetricsCustomizer() {
+        return builder -> builder.withDriverMetrics()
+            .withMetricsAdapter(MetricsAdapter.MICROMETER);
+    }
+
+    /**
+     * Registers the {@link RepositoryQueryCounter} with every Spring Data repository.
+     *
+     * @return the post processor adding the listener to the repository factories
+     */
+    @Bean
+    static BeanPostProcessor repositoryQueryCounterPostProcessor() {
+        RepositoryQueryCounter repositoryQueryCounter = new RepositoryQueryCounter();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(
+                        factory -> factory.addInvocationListener(repositoryQueryCounter));
+                }
+                return bean;
+            }
+        };
+    }
+}
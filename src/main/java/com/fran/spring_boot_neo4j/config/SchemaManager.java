@@ -0,0 +1,111 @@
+package com.fran.spring_boot_neo4j.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.neo4j.driver.summary.ResultSummary;
+import org.neo4j.driver.summary.SummaryCounters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the constraints and indexes the repositories rely on.
+ * <p>
+ * Every statement is guarded by {@code IF [NOT] EXISTS}, so applying the schema is idempotent.
+ * It runs at startup unless {@code app.schema.bootstrap-on-startup} is {@code false}, and can be
+ * triggered again through {@link #applySchema()}. A constraint that cannot be created, typically because
+ * existing data violates it, stops the application from starting.
+ * <p>
+ * The uniqueness constraint on the given and family name also serializes concurrent creates of
+ * the same samurai in {@code SamuraiRepository#createSamurai}.
+ */
+@Component
+public class SchemaManager implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaManager.class);
+
+    private static final List<SchemaElement> SCHEMA = List.of(
+        new SchemaElement("samurai_identifier_unique",
+            "CREATE CONSTRAINT samurai_identifier_unique IF NOT EXISTS "
+                + "FOR (s:Samurai) REQUIRE s.identifier IS UNIQUE"),
+        new SchemaElement("user_username_unique",
+            "CREATE CONSTRAINT user_username_unique IF NOT EXISTS "
+                + "FOR (u:User) REQUIRE u.username IS UNIQUE"),
+        // Replaced by samurai_name_unique, which is backed by an index on the same properties
+        new SchemaElement("samurai_name", "DROP INDEX samurai_name IF EXISTS"),
+        new SchemaElement("samurai_name_unique",
+            "CREATE CONSTRAINT samurai_name_unique IF NOT EXISTS "
+                + "FOR (s:Samurai) REQUIRE (s.givenName, s.familyName) IS UNIQUE"),
+        new SchemaElement("samurai_nick_name",
+            "CREATE INDEX samurai_nick_name IF NOT EXISTS FOR (s:Samurai) ON (s.nickName)"),
+        new SchemaElement("samurai_birth_date",
+            "CREATE RANGE INDEX samurai_birth_date IF NOT EXISTS "
+                + "FOR (s:Samurai) ON (s.birthDate)"),
+        new SchemaElement("samurai_death_date",
+            "CREATE RANGE INDEX samurai_death_date IF NOT EXISTS "
+                + "FOR (s:Samurai) ON (s.deathDate)"));
+
+    // See application.properties
+    @Value("${app.schema.bootstrap-on-startup:true}")
+    private boolean bootstrapOnStartup;
+
+    private final Neo4jClient neo4jClient;
+
+    /**
+     * Constructs a new {@code SchemaManager} with the specified {@code Neo4jClient}.
+     *
+     * @param neo4jClient the client used to run the schema statements
+     */
+    public SchemaManager(Neo4jClient neo4jClient) {
+        this.neo4jClient = neo4jClient;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (bootstrapOnStartup) {
+            applySchema();
+        }
+    }
+
+    /**
+     * Creates every missing constraint and index.
+     *
+     * @return the names of the constraints and indexes that were created
+     * @throws IllegalStateException if a constraint or index cannot be created
+     */
+    public List<String> applySchema() {
+        List<String> created = new ArrayList<>();
+        for (SchemaElement element : SCHEMA) {
+            ResultSummary summary;
+            try {
+                summary = neo4jClient.query(element.cypher()).run();
+            } catch (DataAccessException e) {
+                throw new IllegalStateException("Cannot create " + element.name()
+                    + ", the existing data may conflict with it", e);
+            }
+
+            SummaryCounters counters = summary.counters();
+            if (counters.constraintsAdded() > 0 || counters.indexesAdded() > 0) {
+                logger.info("Created schema element {}", element.name());
+                created.add(element.name());
+            } else if (counters.indexesRemoved() > 0) {
+                logger.info("Dropped schema element {}", element.name());
+            } else {
+                logger.debug("Schema element {} already exists", element.name());
+            }
+        }
+        return created;
+    }
+
+    /**
+     * A named constraint or index and the statement creating it.
+     */
+    private record SchemaElement(String name, String cypher) {
+
+    }
+}
@@ -1,5 +1,6 @@
 package com.fran.spring_boot_neo4j.config;
 
+import com.fran.spring_boot_neo4j.security.CachingAuthenticationProvider;
 import com.fran.spring_boot_neo4j.services.NeoUserDetailsService;
 import java.util.Arrays;
 import java.util.List;
@@ -29,26 +30,18 @@ public class SecurityConfig {
     @Value("${app.cors.allowed-origins}")
     private List<String> allowedOrigins;
 
-    private final NeoUserDetailsService neoUserDetailsService;
-
-    /**
-     * Constructs a new {@code SecurityConfig} with the specified {@code NeoUserDetailsService}.
-     *
-     * @param neoUserDetailsService the service to manage user details
-     */
-    public SecurityConfig(NeoUserDetailsService neoUserDetailsService) {
-        this.neoUserDetailsService = neoUserDetailsService;
-    }
-
     /**
      * Configures the security filter chain.
      *
-     * @param httpSecurity the {@link HttpSecurity} to modify
+     * @param httpSecurity                  the {@link HttpSecurity} to modify
+     * @param cachingAuthenticationProvider the provider verifying users loaded by the
+     *                                      {@link NeoUserDetailsService}
      * @return the configured {@link SecurityFilterChain}
      * @throws Exception if an error occurs during configuration
      */
     @Bean
-    SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
+    SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity,
+        CachingAuthenticationProvider cachingAuthenticationProvider) throws Exception {
         return httpSecurity
             // Set session creation policy to stateless (suitable for REST APIs)
             .sessionManagement(
@@ -58,15 +51,18 @@ public class SecurityConfig {
             // Enable CORS with default settings
             .cors(Customizer.withDefaults())
             // Secure specific endpoints and permit others
-            // These endpoints need to be authenticated (logged in)
+            // Administrative and actuator endpoints need the ADMIN role, except for the health
+            // check; the others need to be authenticated (logged in)
             .authorizeHttpRequests(
-                auth -> auth.requestMatchers(
+                auth -> auth.requestMatchers("/actuator/health").permitAll()
+                    .requestMatchers("/api/v1/admin/**", "/actuator/**").hasRole("ADMIN")
+                    .requestMatchers(
                         "api/v1/auth/me",
                         "api/v1/enrollments/**"
                     ).authenticated().anyRequest()
                     .permitAll())
-            // Configure the custom NeoUserDetailsService for loading user-specific data
-            .userDetailsService(neoUserDetailsService)
+            // Verify credentials against the NeoUserDetailsService, caching successful logins
+            .authenticationProvider(cachingAuthenticationProvider)
             // Enable HTTP Basic authentication with default settings
             .httpBasic(Customizer.withDefaults()).build();
     }
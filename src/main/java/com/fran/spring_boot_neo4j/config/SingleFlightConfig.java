@@ -0,0 +1,31 @@
+package com.fran.spring_boot_neo4j.config;
+
+import com.fran.spring_boot_neo4j.singleflight.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the single flights coalescing concurrent identical reads.
+ * <p>
+ * Samurai entity lookups need none, concurrent misses of the {@code SamuraiCache} already share
+ * a single load.
+ */
+@Configuration
+public class SingleFlightConfig {
+
+    /**
+     * Provides the single flight for building offspring trees that are not cached.
+     *
+     * @param maxWait       the maximum time a request waits for a tree built by another request
+     * @param meterRegistry the registry to publish the call metrics to
+     * @return the tree single flight
+     */
+    @Bean
+    SingleFlight treeSingleFlight(@Value("${app.singleflight.tree.max-wait:10s}") Duration maxWait,
+        MeterRegistry meterRegistry) {
+        return new SingleFlight("tree", maxWait, meterRegistry);
+    }
+}
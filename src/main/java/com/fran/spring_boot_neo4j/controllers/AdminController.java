@@ -0,0 +1,95 @@
+package com.fran.spring_boot_neo4j.controllers;
+
+import com.fran.spring_boot_neo4j.bulkhead.Bulkhead;
+import com.fran.spring_boot_neo4j.config.SchemaManager;
+import com.fran.spring_boot_neo4j.graph.GenealogyGraphProjection;
+import com.fran.spring_boot_neo4j.objects.BulkheadStatsDTO;
+import com.fran.spring_boot_neo4j.objects.GenealogyGraphStatsDTO;
+import com.fran.spring_boot_neo4j.services.SamuraiService;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Controller class for administrative operations. Requires the {@code ADMIN} role.
+ */
+@Controller
+@RequestMapping("/api/v1/admin")
+public class AdminController {
+
+    private final SchemaManager schemaManager;
+    private final List<Bulkhead> bulkheads;
+    private final GenealogyGraphProjection genealogyGraphProjection;
+    private final SamuraiService samuraiService;
+
+    /**
+     * Constructs a new {@code AdminController} with the specified schema manager, bulkheads,
+     * genealogy graph projection and samurai service.
+     *
+     * @param schemaManager            the schema manager to use
+     * @param bulkheads                the bulkheads to report on
+     * @param genealogyGraphProjection the genealogy graph projection to reload
+     * @param samuraiService           the samurai service rebuilding the subtree statistics
+     */
+    public AdminController(SchemaManager schemaManager, List<Bulkhead> bulkheads,
+        GenealogyGraphProjection genealogyGraphProjection, SamuraiService samuraiService) {
+        this.schemaManager = schemaManager;
+        this.bulkheads = bulkheads;
+        this.genealogyGraphProjection = genealogyGraphProjection;
+        this.samuraiService = samuraiService;
+    }
+
+    /**
+     * Creates every missing constraint and index.
+     *
+     * @return a {@code ResponseEntity} containing the names of the created constraints and indexes
+     */
+    @PostMapping("/schema")
+    public ResponseEntity<List<String>> applySchema() {
+        return new ResponseEntity<>(schemaManager.applySchema(), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the state of every bulkhead.
+     *
+     * @return a {@code ResponseEntity} containing the active, queued and rejected callers of each
+     * bulkhead
+     */
+    @GetMapping("/bulkheads")
+    public ResponseEntity<List<BulkheadStatsDTO>> getBulkheadStats() {
+        return new ResponseEntity<>(bulkheads.stream().map(BulkheadStatsDTO::new).toList(),
+            HttpStatus.OK);
+    }
+
+    /**
+     * Reloads the in-memory genealogy graph from the database.
+     *
+     * @return a {@code ResponseEntity} containing the size of the reloaded graph
+     * @throws ResponseStatusException if the genealogy graph is disabled
+     */
+    @PostMapping("/graph")
+    public ResponseEntity<GenealogyGraphStatsDTO> reloadGenealogyGraph() {
+        if (!genealogyGraphProjection.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "The genealogy graph is disabled");
+        }
+        return new ResponseEntity<>(new GenealogyGraphStatsDTO(genealogyGraphProjection.load()),
+            HttpStatus.OK);
+    }
+
+    /**
+     * Recomputes the subtree statistics of every samurai.
+     *
+     * @return a {@code ResponseEntity} containing the number of samurai whose statistics were
+     * recomputed
+     */
+    @PostMapping("/stats")
+    public ResponseEntity<Long> rebuildSubtreeStats() {
+        return new ResponseEntity<>(samuraiService.rebuildSubtreeStats(), HttpStatus.OK);
+    }
+}
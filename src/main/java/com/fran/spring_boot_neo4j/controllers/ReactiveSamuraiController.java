@@ -0,0 +1,65 @@
+package com.fran.spring_boot_neo4j.controllers;
+
+import com.fran.spring_boot_neo4j.objects.OffspringNodeDTO;
+import com.fran.spring_boot_neo4j.objects.SamuraiDTO;
+import com.fran.spring_boot_neo4j.requests.OffspringTreeRequest;
+import com.fran.spring_boot_neo4j.services.ReactiveSamuraiService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controller class for non-blocking samurai reads.
+ * <p>
+ * Handlers return {@link Mono} and {@link Flux} values, so the request thread is released as soon
+ * as the query is sent and the response is completed asynchronously.
+ */
+@RestController
+@RequestMapping("/api/v1/reactive/samurai")
+public class ReactiveSamuraiController {
+
+    private final ReactiveSamuraiService reactiveSamuraiService;
+
+    /**
+     * Constructs a new {@code ReactiveSamuraiController} with the specified service.
+     *
+     * @param reactiveSamuraiService the reactive samurai service to use
+     */
+    public ReactiveSamuraiController(ReactiveSamuraiService reactiveSamuraiService) {
+        this.reactiveSamuraiService = reactiveSamuraiService;
+    }
+
+    /**
+     * Retrieves a samurai by its identifier.
+     *
+     * @param identifier the identifier of the samurai to retrieve
+     * @return a {@code Mono} emitting the samurai data
+     */
+    @GetMapping("/{identifier}")
+    public Mono<SamuraiDTO> getSamuraiByIdentifier(@PathVariable String identifier) {
+        return reactiveSamuraiService.getSamuraiByIdentifier(identifier)
+            .map(samurai -> new SamuraiDTO(samurai.getGivenName(), samurai.getFamilyName(),
+                samurai.getBirthDate(), samurai.getDeathDate()));
+    }
+
+    /**
+     * Streams the offspring of a samurai as newline-delimited JSON, bounded like the nested tree.
+     * <p>
+     * Each line is written as soon as its row is emitted, and rows are only requested from the
+     * database as fast as the client reads them.
+     *
+     * @param identifier the identifier of the samurai
+     * @param request    the optional {@code maxDepth}, {@code maxNodes} and
+     *                   {@code relationshipType} bounds
+     * @return a {@code Flux} of the nodes of the tree
+     */
+    @GetMapping(value = "/offspring/{identifier}",
+        produces = SamuraiController.APPLICATION_NDJSON_VALUE)
+    public Flux<OffspringNodeDTO> streamSamuraiOffspring(@PathVariable String identifier,
+        OffspringTreeRequest request) {
+        return reactiveSamuraiService.streamSamuraiTree(identifier, request);
+    }
+}
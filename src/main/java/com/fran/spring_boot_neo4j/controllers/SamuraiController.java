@@ -1,14 +1,36 @@
 package com.fran.spring_boot_neo4j.controllers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fran.spring_boot_neo4j.cache.OffspringTreeCache;
 import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.objects.AncestorDTO;
+import com.fran.spring_boot_neo4j.objects.BatchRelationshipResponseDTO;
+import com.fran.spring_boot_neo4j.objects.BulkImportResponseDTO;
+import com.fran.spring_boot_neo4j.objects.CacheStatsDTO;
+import com.fran.spring_boot_neo4j.objects.KinshipPathDTO;
 import com.fran.spring_boot_neo4j.objects.SamuraiDTO;
+import com.fran.spring_boot_neo4j.objects.SamuraiMultiGetDTO;
+import com.fran.spring_boot_neo4j.objects.SamuraiPageDTO;
+import com.fran.spring_boot_neo4j.objects.SubtreeStatsDTO;
 import com.fran.spring_boot_neo4j.requests.AddRelationshipRequest;
 import com.fran.spring_boot_neo4j.requests.CreateSamuraiRequest;
+import com.fran.spring_boot_neo4j.requests.ListSamuraiRequest;
+import com.fran.spring_boot_neo4j.requests.OffspringTreeRequest;
+import com.fran.spring_boot_neo4j.services.KinshipService;
 import com.fran.spring_boot_neo4j.services.SamuraiService;
+import com.fran.spring_boot_neo4j.singleflight.SingleFlight;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,6 +40,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controller class for managing samurai entities.
@@ -26,31 +51,117 @@ import org.springframework.web.bind.annotation.RequestParam;
 @RequestMapping("/api/v1/samurai")
 public class SamuraiController {
 
+    /**
+     * Media type for newline-delimited JSON, one object per line.
+     */
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    // Number of streamed lines written before the output is flushed to the client
+    private static final int STREAM_FLUSH_INTERVAL = 256;
+
     private final SamuraiService samuraiService;
+    private final KinshipService kinshipService;
+    private final ObjectMapper objectMapper;
+    private final OffspringTreeCache offspringTreeCache;
+    private final SingleFlight treeSingleFlight;
     private static final Logger logger = LoggerFactory.getLogger(SamuraiController.class);
 
     /**
-     * Constructs a new {@code SamuraiController} with the specified samurai service.
+     * Constructs a new {@code SamuraiController} with the specified samurai services.
      *
-     * @param samuraiService the samurai service to use
+     * @param samuraiService     the samurai service to use
+     * @param kinshipService     the service finding how two samurai are related
+     * @param objectMapper       the object mapper used to write streamed and cached responses
+     * @param offspringTreeCache the cache of serialized offspring trees
+     * @param treeSingleFlight   the single flight sharing a tree build among concurrent misses
      */
-    public SamuraiController(SamuraiService samuraiService) {
+    public SamuraiController(SamuraiService samuraiService, KinshipService kinshipService,
+        ObjectMapper objectMapper, OffspringTreeCache offspringTreeCache,
+        SingleFlight treeSingleFlight) {
         this.samuraiService = samuraiService;
+        this.kinshipService = kinshipService;
+        this.objectMapper = objectMapper;
+        this.offspringTreeCache = offspringTreeCache;
+        this.treeSingleFlight = treeSingleFlight;
     }
 
     /**
      * Retrieves a samurai by its identifier.
+     * <p>
+     * The response carries a strong {@code ETag}; a request whose {@code If-None-Match} still
+     * matches it is answered with 304 and no body.
      *
      * @param identifier the identifier of the samurai to retrieve
+     * @param webRequest the current request, holding the conditional headers
      * @return a {@code ResponseEntity} containing the samurai data
      */
     @GetMapping("/{identifier}")
-    public ResponseEntity<SamuraiDTO> getSamuraiByIdentifier(@PathVariable String identifier) {
+    public ResponseEntity<SamuraiDTO> getSamuraiByIdentifier(@PathVariable String identifier,
+        WebRequest webRequest) {
         Samurai samurai = samuraiService.getSamuraiByIdentifier(identifier);
+        String eTag = samuraiService.getSamuraiETag(samurai);
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         SamuraiDTO responseSamurai = new SamuraiDTO(samurai.getGivenName(), samurai.getFamilyName(),
             samurai.getBirthDate(), samurai.getDeathDate());
 
-        return new ResponseEntity<>(responseSamurai, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(eTag).body(responseSamurai);
+    }
+
+    /**
+     * Lists samurai one page at a time, ordered by identifier.
+     * <p>
+     * Filters are passed as query parameters: {@code familyName}, {@code socialStatus},
+     * {@code clanStatus}, {@code sex} and the inclusive year ranges {@code bornFrom},
+     * {@code bornTo}, {@code diedFrom} and {@code diedTo}. The next page is requested by passing
+     * the {@code nextCursor} of the previous one as {@code cursor}.
+     *
+     * @param request the filters, the page size ({@code limit}) and the cursor
+     * @return a {@code ResponseEntity} containing the samurai of the page and the next cursor
+     */
+    @GetMapping({"", "/"})
+    public ResponseEntity<SamuraiPageDTO> listSamurai(ListSamuraiRequest request) {
+        return new ResponseEntity<>(samuraiService.listSamurai(request), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves many samurai at once by identifier.
+     * <p>
+     * The identifiers are passed as a JSON array in the request body, since hundreds of them do
+     * not fit into a query string. The found samurai are returned in the order of their
+     * identifiers, so that they line up with the requested identifiers once the missing ones are
+     * left out.
+     *
+     * @param identifiers the identifiers of the samurai
+     * @return a {@code ResponseEntity} containing the found samurai and the missing identifiers
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<SamuraiMultiGetDTO> getSamuraiByIdentifiers(
+        @RequestBody List<String> identifiers) {
+        return new ResponseEntity<>(samuraiService.getSamuraiByIdentifiers(identifiers),
+            HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the statistics of the samurai entity cache.
+     *
+     * @return a {@code ResponseEntity} containing the hit, miss and eviction statistics
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CacheStatsDTO> getCacheStats() {
+        return new ResponseEntity<>(samuraiService.getCacheStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the statistics of the offspring tree response cache.
+     *
+     * @return a {@code ResponseEntity} containing the hit, miss and eviction statistics
+     */
+    @GetMapping("/cache/tree/stats")
+    public ResponseEntity<CacheStatsDTO> getTreeCacheStats() {
+        return new ResponseEntity<>(new CacheStatsDTO(offspringTreeCache.estimatedSize(),
+            offspringTreeCache.stats()), HttpStatus.OK);
     }
 
     /**
@@ -65,6 +176,35 @@ public class SamuraiController {
         return new ResponseEntity<>(createdSamurai, HttpStatus.CREATED);
     }
 
+    /**
+     * Imports many samurai at once.
+     * <p>
+     * The body is either a JSON array of {@link CreateSamuraiRequest} records or a stream of
+     * newline-delimited records. Records are read and written in batches while the body is being
+     * received. A malformed record aborts the import with 400; batches written before it are
+     * kept.
+     *
+     * @param body the request body
+     * @return a {@code ResponseEntity} containing the per-record results
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(value = "/bulk",
+        consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkImportResponseDTO> importSamurai(InputStream body)
+        throws IOException {
+        try (MappingIterator<CreateSamuraiRequest> requests =
+            objectMapper.readerFor(CreateSamuraiRequest.class).readValues(body)) {
+            return new ResponseEntity<>(samuraiService.importSamurai(requests), HttpStatus.OK);
+        } catch (RuntimeException e) {
+            if (e instanceof RuntimeJsonMappingException
+                || e.getCause() instanceof JsonProcessingException) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Malformed import record", e);
+            }
+            throw e;
+        }
+    }
+
     /**
      * Deletes a samurai by its identifier.
      *
@@ -91,6 +231,20 @@ public class SamuraiController {
         return new ResponseEntity<>("Relationship successfully added", HttpStatus.OK);
     }
 
+    /**
+     * Adds many parent-child relationships at once.
+     *
+     * @param requests the relationships to add
+     * @return a {@code ResponseEntity} containing the number of linked relationships and the
+     * identifiers that did not match any samurai
+     */
+    @PostMapping("/relationships")
+    public ResponseEntity<BatchRelationshipResponseDTO> addParentChildRelationships(
+        @RequestBody List<AddRelationshipRequest> requests) {
+        return new ResponseEntity<>(samuraiService.addParentChildRelationships(requests),
+            HttpStatus.OK);
+    }
+
     /**
      * Adds a parent-child relationship between two samurai.
      *
@@ -113,14 +267,157 @@ public class SamuraiController {
     }
 
     /**
-     * Retrieves all offspring of a samurai in a tree structure.
+     * Retrieves the offspring of a samurai in a tree structure, bounded by the optional
+     * {@code maxDepth}, {@code maxNodes} and {@code relationshipType} query parameters.
+     *
+     * <p>
+     * The response carries a strong {@code ETag} that changes with any samurai of the subtree; a
+     * request whose {@code If-None-Match} still matches it is answered with 304 before the tree
+     * is built. The serialized tree is kept in the {@link OffspringTreeCache} under that tag,
+     * so repeated requests for an unchanged tree are answered without building it again, and
+     * concurrent requests missing the cache wait for a single build.
      *
      * @param identifier the identifier of the samurai
-     * @return a {@code ResponseEntity} containing the tree structure of offspring
+     * @param request    the bounds of the tree
+     * @param webRequest the current request, holding the conditional headers
+     * @return a {@code ResponseEntity} containing the serialized tree structure of offspring
      */
     @GetMapping("/offspring/{identifier}")
-    public ResponseEntity<SamuraiDTO> getSamuraiOffspring(@PathVariable String identifier) {
-        SamuraiDTO samuraiTree = samuraiService.getSamuraiTree(identifier);
-        return new ResponseEntity<>(samuraiTree, HttpStatus.OK);
+    public ResponseEntity<byte[]> getSamuraiOffspring(@PathVariable String identifier,
+        OffspringTreeRequest request, WebRequest webRequest) {
+        return getCachedTree(identifier, request, webRequest, "nested",
+            () -> samuraiService.getSamuraiTree(identifier, request));
+    }
+
+    /**
+     * Retrieves the offspring of a samurai as a flat node table, bounded like the nested tree.
+     * <p>
+     * Each node refers to its parent and to its relationship type by index, which keeps the
+     * payload small however deep the tree is. The response carries the same {@code ETag} as the
+     * nested tree and is cached the same way.
+     *
+     * @param identifier the identifier of the samurai
+     * @param request    the bounds of the tree
+     * @param webRequest the current request, holding the conditional headers
+     * @return a {@code ResponseEntity} containing the serialized nodes with their parent indexes
+     */
+    @GetMapping(value = "/offspring/{identifier}", params = "format=flat")
+    public ResponseEntity<byte[]> getSamuraiOffspringFlat(@PathVariable String identifier,
+        OffspringTreeRequest request, WebRequest webRequest) {
+        return getCachedTree(identifier, request, webRequest, "flat",
+            () -> samuraiService.getFlatSamuraiTree(identifier, request));
+    }
+
+    /**
+     * Retrieves the ancestors of a samurai as a tree of parents.
+     *
+     * @param identifier the identifier of the samurai
+     * @param depth      the number of generations to go up (default is the configured maximum)
+     * @return a {@code ResponseEntity} containing the samurai with its parents
+     */
+    @GetMapping("/ancestors/{identifier}")
+    public ResponseEntity<SamuraiDTO> getSamuraiAncestors(@PathVariable String identifier,
+        @RequestParam(value = "depth", required = false) Integer depth) {
+        return new ResponseEntity<>(samuraiService.getSamuraiAncestorTree(identifier, depth),
+            HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the ancestors of a samurai as a flat list, each ancestor appearing once.
+     *
+     * @param identifier the identifier of the samurai
+     * @param depth      the number of generations to go up (default is the configured maximum)
+     * @return a {@code ResponseEntity} containing the ancestors with their depth and children
+     */
+    @GetMapping(value = "/ancestors/{identifier}", params = "format=flat")
+    public ResponseEntity<List<AncestorDTO>> getSamuraiAncestorList(
+        @PathVariable String identifier,
+        @RequestParam(value = "depth", required = false) Integer depth) {
+        return new ResponseEntity<>(samuraiService.getSamuraiAncestorList(identifier, depth),
+            HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the subtree statistics of a samurai.
+     *
+     * @param identifier the identifier of the samurai
+     * @return a {@code ResponseEntity} containing the descendant counts and the generation depth
+     */
+    @GetMapping("/stats/{identifier}")
+    public ResponseEntity<SubtreeStatsDTO> getSubtreeStats(@PathVariable String identifier) {
+        return new ResponseEntity<>(samuraiService.getSubtreeStats(identifier), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the shortest path of parent-child relationships between two samurai.
+     *
+     * @param fromIdentifier the identifier of the samurai the path starts from
+     * @param toIdentifier   the identifier of the samurai the path ends at
+     * @return a {@code ResponseEntity} containing the samurai on the path and the direction and
+     * type of each relationship
+     */
+    @GetMapping("/kinship/{fromIdentifier}/{toIdentifier}")
+    public ResponseEntity<KinshipPathDTO> getKinshipPath(@PathVariable String fromIdentifier,
+        @PathVariable String toIdentifier) {
+        return new ResponseEntity<>(kinshipService.getKinshipPath(fromIdentifier, toIdentifier),
+            HttpStatus.OK);
+    }
+
+    /**
+     * Streams the offspring of a samurai as newline-delimited JSON, bounded like the nested tree.
+     * <p>
+     * Each line holds one node with its identifier, parent identifier, depth and relationship
+     * type. Lines are written while the rows are read from the database, so the tree is never held
+     * in memory as a whole.
+     *
+     * @param identifier the identifier of the samurai
+     * @param request    the optional {@code maxDepth}, {@code maxNodes} and
+     *                   {@code relationshipType} bounds
+     * @return a {@code ResponseEntity} streaming the nodes of the tree
+     */
+    @GetMapping(value = "/offspring/{identifier}", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSamuraiOffspring(
+        @PathVariable String identifier, OffspringTreeRequest request) {
+        // Resolve the root before streaming starts so a missing samurai still maps to 404
+        Samurai root = samuraiService.getSamuraiByIdentifier(identifier);
+
+        StreamingResponseBody body = outputStream -> {
+            int[] linesSinceFlush = {0};
+            samuraiService.streamSamuraiTree(root, request, node -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(node));
+                    outputStream.write('\n');
+                    if (++linesSinceFlush[0] == STREAM_FLUSH_INTERVAL) {
+                        outputStream.flush();
+                        linesSinceFlush[0] = 0;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+            .body(body);
+    }
+
+    // Answers a tree request with 304, the cached response or a newly serialized tree
+    private ResponseEntity<byte[]> getCachedTree(String identifier, OffspringTreeRequest request,
+        WebRequest webRequest, String format, Supplier<Object> tree) {
+        String eTag = samuraiService.getSamuraiTreeETag(identifier, request);
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        byte[] body = offspringTreeCache.get(identifier, eTag, format,
+            () -> treeSingleFlight.execute(eTag + ";" + format, () -> {
+                try {
+                    return objectMapper.writeValueAsBytes(tree.get());
+                } catch (JsonProcessingException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(eTag).body(body);
     }
 }
\ No newline at end of file
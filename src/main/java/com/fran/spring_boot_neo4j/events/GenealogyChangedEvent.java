@@ -0,0 +1,70 @@
+package com.fran.spring_boot_neo4j.events;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Application event published after samurai or parent-child relationships have been written.
+ * <p>
+ * Listeners are invoked synchronously on the writing thread, after the write has been committed,
+ * and use the event to drop or update whatever they derived from the changed samurai.
+ */
+public class GenealogyChangedEvent {
+
+    private final Set<String> identifiers;
+    private final boolean everything;
+
+    /**
+     * Constructs a new {@code GenealogyChangedEvent}.
+     *
+     * @param identifiers the identifiers of the samurai that were created, deleted or linked, or
+     *                    whose subtree statistics changed; {@code null} values are ignored
+     */
+    public GenealogyChangedEvent(Collection<String> identifiers) {
+        this.identifiers = identifiers.stream()
+            .filter(Objects::nonNull)
+            .collect(Collectors.toUnmodifiableSet());
+        this.everything = false;
+    }
+
+    private GenealogyChangedEvent() {
+        this.identifiers = Set.of();
+        this.everything = true;
+    }
+
+    /**
+     * Creates an event for the given samurai.
+     *
+     * @param identifiers the identifiers of the changed samurai; {@code null} values are ignored
+     * @return the event
+     */
+    public static GenealogyChangedEvent of(String... identifiers) {
+        return new GenealogyChangedEvent(Arrays.asList(identifiers));
+    }
+
+    /**
+     * Creates an event for a change that may have touched every samurai, such as a rebuild of the
+     * subtree statistics.
+     *
+     * @return the event
+     */
+    public static GenealogyChangedEvent everything() {
+        return new GenealogyChangedEvent();
+    }
+
+    /**
+     * Returns the identifiers of the changed samurai. Empty when {@link #isEverything()}.
+     *
+     * @return the identifiers of the changed samurai
+     */
+    public Set<String> getIdentifiers() {
+        return identifiers;
+    }
+
+    public boolean isEverything() {
+        return everything;
+    }
+}
@@ -0,0 +1,469 @@
+package com.fran.spring_boot_neo4j.graph;
+
+import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.models.enums.BirthSex;
+import com.fran.spring_boot_neo4j.models.enums.ParentChildRelationshipType;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiAncestorEdgeQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiTreeEdgeQueryResult;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable in-memory projection of the genealogy: every samurai and every parent-child
+ * relationship, with the adjacency stored in compressed sparse row (CSR) form.
+ * <p>
+ * Samurai are numbered by the position of their identifier in a sorted dictionary, and their
+ * properties are kept in one column per property. The offspring of samurai {@code n} are found in
+ * {@code children} between {@code childOffsets[n]} and {@code childOffsets[n + 1]}, with the
+ * relationship types at the same positions of {@code childTypes}. Parents are stored the same way.
+ * <p>
+ * Heap use per million samurai, with 36-character identifiers, short given names and one
+ * parent-child relationship per samurai:
+ * <ul>
+ *     <li>identifier dictionary: about 84 MB</li>
+ *     <li>name columns: about 60 MB, family names are shared between samurai</li>
+ *     <li>sex, date and subtree statistics columns: 21 MB</li>
+ *     <li>adjacency offsets in both directions: 8 MB</li>
+ *     <li>relationships in both directions: 10 MB per million relationships</li>
+ * </ul>
+ * That is roughly 180 MB per million samurai, twice as much while a change is being applied
+ * because the previous projection is still being read.
+ * <p>
+ * The traversals return the same rows as the matching {@code SamuraiRepository} queries, so the
+ * service assembles trees the same way whichever source served them.
+ */
+public final class GenealogyGraph {
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int NO_STATS = -1;
+    private static final int NOT_REACHED = -1;
+    private static final byte NONE = -1;
+    private static final BirthSex[] SEXES = BirthSex.values();
+    private static final ParentChildRelationshipType[] TYPES =
+        ParentChildRelationshipType.values();
+
+    private final String[] identifiers;
+    private final String[] givenNames;
+    private final String[] familyNames;
+    private final String[] nickNames;
+    private final byte[] sexes;
+    private final int[] birthDates;
+    private final int[] deathDates;
+    private final int[] descendantCounts;
+    private final int[] livingDescendantCounts;
+    private final int[] generationDepths;
+
+    private final int[] childOffsets;
+    private final int[] children;
+    private final byte[] childTypes;
+    private final int[] parentOffsets;
+    private final int[] parents;
+    private final byte[] parentTypes;
+
+    private GenealogyGraph(List<Node> nodes, List<Edge> edges) {
+        int size = nodes.size();
+        identifiers = new String[size];
+        givenNames = new String[size];
+        familyNames = new String[size];
+        nickNames = new String[size];
+        sexes = new byte[size];
+        birthDates = new int[size];
+        deathDates = new int[size];
+        descendantCounts = new int[size];
+        livingDescendantCounts = new int[size];
+        generationDepths = new int[size];
+
+        Map<String, String> sharedFamilyNames = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Node node = nodes.get(i);
+            identifiers[i] = node.identifier();
+            givenNames[i] = node.givenName();
+            familyNames[i] = node.familyName() != null
+                ? sharedFamilyNames.computeIfAbsent(node.familyName(), name -> name) : null;
+            nickNames[i] = node.nickName();
+            sexes[i] = node.sex();
+            birthDates[i] = node.birthDate();
+            deathDates[i] = node.deathDate();
+            descendantCounts[i] = node.descendantCount();
+            livingDescendantCounts[i] = node.livingDescendantCount();
+            generationDepths[i] = node.generationDepth();
+        }
+
+        // Relationships to samurai outside the projection are dropped
+        int[] from = new int[edges.size()];
+        int[] to = new int[edges.size()];
+        byte[] types = new byte[edges.size()];
+        int count = 0;
+        for (Edge edge : edges) {
+            int parent = indexOf(edge.parentIdentifier());
+            int child = indexOf(edge.childIdentifier());
+            if (parent >= 0 && child >= 0) {
+                from[count] = parent;
+                to[count] = child;
+                types[count] = edge.type();
+                count++;
+            }
+        }
+
+        childOffsets = new int[size + 1];
+        children = new int[count];
+        childTypes = new byte[count];
+        fill(from, to, types, count, childOffsets, children, childTypes);
+        parentOffsets = new int[size + 1];
+        parents = new int[count];
+        parentTypes = new byte[count];
+        fill(to, from, types, count, parentOffsets, parents, parentTypes);
+    }
+
+    /**
+     * Fills one direction of the adjacency from the relationship arrays.
+     *
+     * @param sources  the source samurai of every relationship
+     * @param targets  the target samurai of every relationship
+     * @param types    the type of every relationship
+     * @param count    the number of relationships
+     * @param offsets  the offsets to fill, one more than the number of samurai
+     * @param ends     the targets to fill, grouped by source
+     * @param endTypes the types to fill, at the same positions as the targets
+     */
+    private static void fill(int[] sources, int[] targets, byte[] types, int count, int[] offsets,
+        int[] ends, byte[] endTypes) {
+        for (int i = 0; i < count; i++) {
+            offsets[sources[i] + 1]++;
+        }
+        for (int n = 1; n < offsets.length; n++) {
+            offsets[n] += offsets[n - 1];
+        }
+        int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int i = 0; i < count; i++) {
+            int position = next[sources[i]]++;
+            ends[position] = targets[i];
+            endTypes[position] = types[i];
+        }
+    }
+
+    /**
+     * Creates a builder for a new projection.
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a builder holding this projection without the given samurai and their
+     * relationships, so they can be added again as they are now stored.
+     *
+     * @param excluded the identifiers of the samurai to leave out
+     * @return the builder
+     */
+    public Builder toBuilder(Set<String> excluded) {
+        Builder builder = new Builder();
+        for (int n = 0; n < identifiers.length; n++) {
+            if (!excluded.contains(identifiers[n])) {
+                builder.nodes.add(new Node(identifiers[n], givenNames[n], familyNames[n],
+                    nickNames[n], sexes[n], birthDates[n], deathDates[n], descendantCounts[n],
+                    livingDescendantCounts[n], generationDepths[n]));
+            }
+        }
+        for (int parent = 0; parent < identifiers.length; parent++) {
+            if (excluded.contains(identifiers[parent])) {
+                continue;
+            }
+            for (int i = childOffsets[parent]; i < childOffsets[parent + 1]; i++) {
+                if (!excluded.contains(identifiers[children[i]])) {
+                    builder.edges.add(new Edge(identifiers[parent], identifiers[children[i]],
+                        childTypes[i]));
+                }
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Returns the number of samurai in the projection.
+     *
+     * @return the number of samurai
+     */
+    public int samuraiCount() {
+        return identifiers.length;
+    }
+
+    /**
+     * Returns the number of parent-child relationships in the projection.
+     *
+     * @return the number of relationships
+     */
+    public int relationshipCount() {
+        return children.length;
+    }
+
+    /**
+     * Finds the parent-child edges of a samurai tree bounded in depth, size and relationship
+     * type, with the same rows as {@code OffspringTreeLoader#findOffspringTreeEdges}.
+     * <p>
+     * The offspring are walked generation by generation and the walk stops as soon as the size
+     * bound is reached. Edges from samurai below that generation are left out, as the tree never
+     * reaches them.
+     *
+     * @param identifier       the identifier of the root samurai
+     * @param maxDepth         the maximum number of generations below the root
+     * @param relationshipType the only relationship type to follow, or {@code null} for all
+     * @param limit            the maximum number of samurai, including the root
+     * @return a flat list of edges, starting with the root without a parent
+     */
+    public List<SamuraiTreeEdgeQueryResult> findOffspringTreeEdges(String identifier,
+        int maxDepth, String relationshipType, int limit) {
+        int root = indexOf(identifier);
+        if (root < 0) {
+            return List.of();
+        }
+        byte type = typeOf(relationshipType);
+
+        // Breadth-first, each generation in identifier order like the query. The samurai are
+        // queued in the order they are reached, every generation after the previous one
+        int[] depths = new int[identifiers.length];
+        Arrays.fill(depths, NOT_REACHED);
+        depths[root] = 0;
+        int[] ordered = new int[identifiers.length];
+        ordered[0] = root;
+        int count = 1;
+        int generationStart = 0;
+        for (int depth = 0; generationStart < count; depth++) {
+            if (count >= limit || depth == maxDepth) {
+                break;
+            }
+            int generationEnd = count;
+            for (int g = generationStart; g < generationEnd; g++) {
+                int parent = ordered[g];
+                for (int i = childOffsets[parent]; i < childOffsets[parent + 1]; i++) {
+                    if (matches(childTypes[i], type) && depths[children[i]] == NOT_REACHED) {
+                        depths[children[i]] = depth + 1;
+                        ordered[count++] = children[i];
+                    }
+                }
+            }
+            Arrays.sort(ordered, generationEnd, count);
+            generationStart = generationEnd;
+        }
+
+        List<SamuraiTreeEdgeQueryResult> edges = new ArrayList<>();
+        for (int o = 0; o < Math.min(limit, count); o++) {
+            int offspring = ordered[o];
+            Samurai samurai = toSamurai(offspring);
+            List<String> offspringIdentifiers = new ArrayList<>();
+            for (int i = childOffsets[offspring]; i < childOffsets[offspring + 1]; i++) {
+                if (matches(childTypes[i], type)) {
+                    offspringIdentifiers.add(identifiers[children[i]]);
+                }
+            }
+            long depth = depths[offspring];
+            if (offspring == root) {
+                edges.add(treeEdge(null, samurai, null, depth, offspringIdentifiers));
+            }
+            for (int i = parentOffsets[offspring]; i < parentOffsets[offspring + 1]; i++) {
+                int parentDepth = depths[parents[i]];
+                if (matches(parentTypes[i], type) && parentDepth != NOT_REACHED
+                    && parentDepth < maxDepth) {
+                    edges.add(treeEdge(identifiers[parents[i]], samurai,
+                        nameOf(parentTypes[i]), depth, offspringIdentifiers));
+                }
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Finds every parent-child edge between a samurai and its ancestors up to a maximum number of
+     * generations, with the same rows as {@code SamuraiRepository#findAncestorEdgesByIdentifier}.
+     *
+     * @param identifier the identifier of the samurai
+     * @param maxDepth   the maximum number of generations to go up
+     * @return a flat list of edges with child identifier, parent and relationship type
+     */
+    public List<SamuraiAncestorEdgeQueryResult> findAncestorEdges(String identifier,
+        int maxDepth) {
+        int root = indexOf(identifier);
+        if (root < 0) {
+            return List.of();
+        }
+
+        // The root is queued first, then the ancestors in the order they are reached
+        boolean[] ancestors = new boolean[identifiers.length];
+        int[] lineage = new int[identifiers.length + 1];
+        lineage[0] = root;
+        int count = 1;
+        int generationStart = 0;
+        for (int depth = 0; depth < maxDepth && generationStart < count; depth++) {
+            int generationEnd = count;
+            for (int g = generationStart; g < generationEnd; g++) {
+                int child = lineage[g];
+                for (int i = parentOffsets[child]; i < parentOffsets[child + 1]; i++) {
+                    if (!ancestors[parents[i]]) {
+                        ancestors[parents[i]] = true;
+                        lineage[count++] = parents[i];
+                    }
+                }
+            }
+            generationStart = generationEnd;
+        }
+
+        // The edges of the ancestors come first, and the root's last unless it is an ancestor
+        // of itself
+        if (!ancestors[root]) {
+            lineage[count++] = root;
+        }
+        List<SamuraiAncestorEdgeQueryResult> edges = new ArrayList<>();
+        for (int l = 1; l < count; l++) {
+            int child = lineage[l];
+            for (int i = parentOffsets[child]; i < parentOffsets[child + 1]; i++) {
+                if (ancestors[parents[i]]) {
+                    SamuraiAncestorEdgeQueryResult edge = new SamuraiAncestorEdgeQueryResult();
+                    edge.setChildIdentifier(identifiers[child]);
+                    edge.setParent(toSamurai(parents[i]));
+                    edge.setRelationshipType(nameOf(parentTypes[i]));
+                    edges.add(edge);
+                }
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Looks up the number of a samurai in the identifier dictionary.
+     *
+     * @param identifier the identifier of the samurai
+     * @return the number of the samurai, or a negative value if it is not in the projection
+     */
+    private int indexOf(String identifier) {
+        return identifier != null ? Arrays.binarySearch(identifiers, identifier) : -1;
+    }
+
+    /**
+     * Recreates the samurai entity of a number, with the properties kept by the projection.
+     *
+     * @param n the number of the samurai
+     * @return the samurai entity
+     */
+    private Samurai toSamurai(int n) {
+        Samurai samurai = new Samurai();
+        samurai.setIdentifier(identifiers[n]);
+        samurai.setGivenName(givenNames[n]);
+        samurai.setFamilyName(familyNames[n]);
+        samurai.setNickName(nickNames[n]);
+        samurai.setSex(sexes[n] != NONE ? SEXES[sexes[n]] : null);
+        samurai.setBirthDate(birthDates[n] != NO_DATE ? LocalDate.ofEpochDay(birthDates[n]) : null);
+        samurai.setDeathDate(deathDates[n] != NO_DATE ? LocalDate.ofEpochDay(deathDates[n]) : null);
+        samurai.setDescendantCount(descendantCounts[n] != NO_STATS ? descendantCounts[n] : null);
+        samurai.setLivingDescendantCount(
+            livingDescendantCounts[n] != NO_STATS ? livingDescendantCounts[n] : null);
+        samurai.setGenerationDepth(generationDepths[n] != NO_STATS ? generationDepths[n] : null);
+        return samurai;
+    }
+
+    private static SamuraiTreeEdgeQueryResult treeEdge(String parentIdentifier, Samurai offspring,
+        String relationshipType, long depth, List<String> offspringIdentifiers) {
+        SamuraiTreeEdgeQueryResult edge = new SamuraiTreeEdgeQueryResult();
+        edge.setParentIdentifier(parentIdentifier);
+        edge.setOffspring(offspring);
+        edge.setRelationshipType(relationshipType);
+        edge.setDepth(depth);
+        edge.setOffspringIdentifiers(offspringIdentifiers);
+        return edge;
+    }
+
+    private static boolean matches(byte relationshipType, byte filter) {
+        return filter == NONE || relationshipType == filter;
+    }
+
+    private static byte typeOf(String relationshipType) {
+        for (ParentChildRelationshipType type : TYPES) {
+            if (type.name().equals(relationshipType)) {
+                return (byte) type.ordinal();
+            }
+        }
+        return NONE;
+    }
+
+    private static String nameOf(byte relationshipType) {
+        return relationshipType != NONE ? TYPES[relationshipType].name() : null;
+    }
+
+    /**
+     * Collects samurai and relationships in any order and builds the projection from them.
+     */
+    public static final class Builder {
+
+        private final List<Node> nodes = new ArrayList<>();
+        private final List<Edge> edges = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a samurai. Only the properties shown in trees are kept.
+         *
+         * @param samurai the samurai
+         * @return this builder
+         */
+        public Builder addSamurai(Samurai samurai) {
+            nodes.add(new Node(samurai.getIdentifier(), samurai.getGivenName(),
+                samurai.getFamilyName(), samurai.getNickName(),
+                samurai.getSex() != null ? (byte) samurai.getSex().ordinal() : NONE,
+                samurai.getBirthDate() != null
+                    ? (int) samurai.getBirthDate().toEpochDay() : NO_DATE,
+                samurai.getDeathDate() != null
+                    ? (int) samurai.getDeathDate().toEpochDay() : NO_DATE,
+                orNoStats(samurai.getDescendantCount()),
+                orNoStats(samurai.getLivingDescendantCount()),
+                orNoStats(samurai.getGenerationDepth())));
+            return this;
+        }
+
+        private static int orNoStats(Integer value) {
+            return value != null ? value : NO_STATS;
+        }
+
+        /**
+         * Adds a parent-child relationship. Relationships to samurai that are never added are
+         * dropped when the projection is built.
+         *
+         * @param parentIdentifier the identifier of the parent
+         * @param childIdentifier  the identifier of the child
+         * @param relationshipType the relationship type, or {@code null}
+         * @return this builder
+         */
+        public Builder addRelationship(String parentIdentifier, String childIdentifier,
+            String relationshipType) {
+            edges.add(new Edge(parentIdentifier, childIdentifier, typeOf(relationshipType)));
+            return this;
+        }
+
+        /**
+         * Builds the projection.
+         *
+         * @return the projection
+         */
+        public GenealogyGraph build() {
+            nodes.sort(Comparator.comparing(Node::identifier));
+            return new GenealogyGraph(nodes, edges);
+        }
+    }
+
+    private record Node(String identifier, String givenName, String familyName, String nickName,
+                        byte sex, int birthDate, int deathDate, int descendantCount,
+                        int livingDescendantCount, int generationDepth) {
+
+    }
+
+    private record Edge(String parentIdentifier, String childIdentifier, byte type) {
+
+    }
+}
@@ -0,0 +1,175 @@
+package com.fran.spring_boot_neo4j.graph;
+
+import com.fran.spring_boot_neo4j.cache.OffspringTreeCache;
+import com.fran.spring_boot_neo4j.events.GenealogyChangedEvent;
+import com.fran.spring_boot_neo4j.repositories.SamuraiTraversalRepository;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the current {@link GenealogyGraph} when the in-memory projection is enabled.
+ * <p>
+ * The projection is loaded at startup unless {@code app.graph.projection.enabled} is
+ * {@code false}, which is the default. Until it is loaded, and whenever it is disabled, readers
+ * get {@code null} and fall back to Cypher. Every {@link GenealogyChangedEvent} replaces the
+ * projection with a copy in which the changed samurai and their relationships are reloaded from
+ * the database, or with a fresh load if the event may have touched every samurai.
+ * <p>
+ * Events only record the changed samurai; the copy is made on a background thread, once for
+ * all the changes recorded since the previous copy, so a bulk write does not rebuild the
+ * projection per batch on the writer's thread. While changes are pending, readers get
+ * {@code null} and fall back to Cypher rather than read the stale copy. If a change cannot be
+ * applied, the projection is dropped until it is loaded again.
+ */
+@Component
+public class GenealogyGraphProjection implements ApplicationRunner, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenealogyGraphProjection.class);
+
+    private final SamuraiTraversalRepository samuraiTraversalRepository;
+    private final boolean enabled;
+
+    private final ExecutorService executor =
+        Executors.newSingleThreadExecutor(GenealogyGraphProjection::changeThread);
+
+    // Guarded by itself
+    private final Set<String> pendingIdentifiers = new HashSet<>();
+    private boolean pendingEverything;
+    private boolean applying;
+
+    private volatile GenealogyGraph graph;
+    private volatile boolean stale;
+
+    /**
+     * Constructs a new {@code GenealogyGraphProjection}.
+     *
+     * @param samuraiTraversalRepository the repository loading the projection
+     * @param enabled                    whether the projection is loaded and used
+     */
+    public GenealogyGraphProjection(SamuraiTraversalRepository samuraiTraversalRepository,
+        @Value("${app.graph.projection.enabled:false}") boolean enabled) {
+        this.samuraiTraversalRepository = samuraiTraversalRepository;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            load();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Loads the whole projection from the database, replacing the current one.
+     *
+     * @return the loaded projection
+     */
+    public synchronized GenealogyGraph load() {
+        long start = System.nanoTime();
+        GenealogyGraph loaded = samuraiTraversalRepository.loadGenealogyGraph();
+        graph = loaded;
+        logger.info("Loaded genealogy graph with {} samurai and {} relationships in {} ms",
+            loaded.samuraiCount(), loaded.relationshipCount(),
+            (System.nanoTime() - start) / 1_000_000);
+        return loaded;
+    }
+
+    /**
+     * Returns whether the projection is enabled.
+     *
+     * @return {@code true} if the projection is loaded and used
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the current projection.
+     *
+     * @return the projection, or {@code null} if it is disabled, not loaded yet or has changes
+     * pending
+     */
+    public GenealogyGraph current() {
+        return stale ? null : graph;
+    }
+
+    /**
+     * Records the changed samurai and schedules their reload into the projection.
+     * <p>
+     * Runs before the {@link OffspringTreeCache} drops the affected trees, so no tree is cached
+     * from the stale copy.
+     *
+     * @param event the event naming the changed samurai
+     */
+    @EventListener
+    @Order(0)
+    public void onGenealogyChanged(GenealogyChangedEvent event) {
+        if (graph == null || event.getIdentifiers().isEmpty() && !event.isEverything()) {
+            return;
+        }
+        synchronized (pendingIdentifiers) {
+            pendingIdentifiers.addAll(event.getIdentifiers());
+            pendingEverything |= event.isEverything();
+            stale = true;
+            if (!applying) {
+                applying = true;
+                executor.execute(this::applyPendingChanges);
+            }
+        }
+    }
+
+    /**
+     * Applies the recorded changes to the projection until none are left.
+     */
+    private synchronized void applyPendingChanges() {
+        while (true) {
+            Set<String> identifiers;
+            boolean everything;
+            synchronized (pendingIdentifiers) {
+                if (!pendingEverything && pendingIdentifiers.isEmpty()) {
+                    applying = false;
+                    stale = false;
+                    return;
+                }
+                identifiers = Set.copyOf(pendingIdentifiers);
+                everything = pendingEverything;
+                pendingIdentifiers.clear();
+                pendingEverything = false;
+            }
+            try {
+                if (everything) {
+                    load();
+                } else if (graph != null) {
+                    graph = samuraiTraversalRepository.reloadGenealogyGraph(graph, identifiers);
+                }
+            } catch (RuntimeException e) {
+                // A stale projection would serve wrong trees, reads go to Cypher until the next
+                // load
+                logger.error("Cannot apply genealogy change, disabling the genealogy graph", e);
+                graph = null;
+            }
+        }
+    }
+
+    private static Thread changeThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "genealogy-graph-changes");
+        thread.setDaemon(true);
+        return thread;
+    }
+}
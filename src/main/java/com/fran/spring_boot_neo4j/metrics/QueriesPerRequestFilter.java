@@ -0,0 +1,59 @@
+package com.fran.spring_boot_neo4j.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Servlet filter recording how many repository queries each request issued.
+ * <p>
+ * The number is published as the {@code samurai.request.repository.queries} distribution summary,
+ * tagged with the HTTP method and the matched URI template. Requests that did not match any
+ * handler are not recorded, to keep the number of tag values bounded.
+ */
+@Component
+public class QueriesPerRequestFilter extends OncePerRequestFilter {
+
+    private static final String METRIC_NAME = "samurai.request.repository.queries";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructs a new {@code QueriesPerRequestFilter} with the specified registry.
+     *
+     * @param meterRegistry the registry to publish the metric to
+     */
+    public QueriesPerRequestFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+        FilterChain filterChain) throws ServletException, IOException {
+        AtomicInteger count = new AtomicInteger();
+        request.setAttribute(RepositoryQueryCounter.COUNT_ATTRIBUTE, count);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.getAttribute(
+                HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String uri) {
+                DistributionSummary.builder(METRIC_NAME)
+                    .description("Repository queries issued per HTTP request")
+                    .baseUnit("queries")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(count.get());
+            }
+        }
+    }
+}
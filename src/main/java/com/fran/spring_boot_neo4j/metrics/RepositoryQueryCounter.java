@@ -0,0 +1,29 @@
+package com.fran.spring_boot_neo4j.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Counts the repository method invocations made while handling the current HTTP request.
+ * <p>
+ * The count is kept in a request attribute set up by {@link QueriesPerRequestFilter}. Invocations
+ * outside a request, or on threads the request is not bound to, are not counted.
+ */
+public class RepositoryQueryCounter implements RepositoryMethodInvocationListener {
+
+    /**
+     * Name of the request attribute holding the count.
+     */
+    static final String COUNT_ATTRIBUTE = RepositoryQueryCounter.class.getName() + ".COUNT";
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation repositoryMethodInvocation) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null && requestAttributes.getAttribute(COUNT_ATTRIBUTE,
+            RequestAttributes.SCOPE_REQUEST) instanceof AtomicInteger count) {
+            count.incrementAndGet();
+        }
+    }
+}
@@ -13,6 +13,15 @@ public class Samurai extends Human {
     private SocialStatus socialStatus;
     private ClanStatus clanStatus;
 
+    // Subtree statistics, maintained on write by SamuraiService
+    private Integer descendantCount;
+    private Integer livingDescendantCount;
+    private Integer generationDepth;
+
+    // Version stamps, bumped on write by SamuraiService
+    private Long version;
+    private Long subtreeVersion;
+
     public Samurai() {
     }
 
@@ -31,4 +40,44 @@ public class Samurai extends Human {
     public ClanStatus getClanStatus() {
         return clanStatus;
     }
+
+    public Integer getDescendantCount() {
+        return descendantCount;
+    }
+
+    public void setDescendantCount(Integer descendantCount) {
+        this.descendantCount = descendantCount;
+    }
+
+    public Integer getLivingDescendantCount() {
+        return livingDescendantCount;
+    }
+
+    public void setLivingDescendantCount(Integer livingDescendantCount) {
+        this.livingDescendantCount = livingDescendantCount;
+    }
+
+    public Integer getGenerationDepth() {
+        return generationDepth;
+    }
+
+    public void setGenerationDepth(Integer generationDepth) {
+        this.generationDepth = generationDepth;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getSubtreeVersion() {
+        return subtreeVersion;
+    }
+
+    public void setSubtreeVersion(Long subtreeVersion) {
+        this.subtreeVersion = subtreeVersion;
+    }
 }
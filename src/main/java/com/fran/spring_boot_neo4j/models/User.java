@@ -2,6 +2,8 @@ package com.fran.spring_boot_neo4j.models;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.neo4j.core.schema.GeneratedValue;
 import org.springframework.data.neo4j.core.schema.Id;
 import org.springframework.security.core.GrantedAuthority;
@@ -21,6 +23,9 @@ public class User implements UserDetails {
     private String password;
     private String roles;
 
+    // Authorities parsed from the roles string, built on first use
+    @Transient
+    private List<GrantedAuthority> authorities;
 
     public Long getId() {
         return id;
@@ -41,13 +46,16 @@ public class User implements UserDetails {
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        // e.g. ROLE_USER,ROLE_ADMIN...
-        // Split the roles string by commas to get an array of individual roles
-        return Arrays.stream(roles.split(","))
-            // Map each role string to a SimpleGrantedAuthority object
-            .map(SimpleGrantedAuthority::new)
-            // Collect the mapped SimpleGrantedAuthority objects into a list
-            .toList();
+        if (authorities == null) {
+            // e.g. ROLE_USER,ROLE_ADMIN...
+            // Split the roles string by commas to get an array of individual roles
+            authorities = Arrays.stream(roles.split(","))
+                // Map each role string to a SimpleGrantedAuthority object
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                // Collect the mapped SimpleGrantedAuthority objects into a list
+                .toList();
+        }
+        return authorities;
     }
 
     /**
@@ -126,5 +134,6 @@ public class User implements UserDetails {
 
     public void setRoles(String roles) {
         this.roles = roles;
+        this.authorities = null;
     }
 }
@@ -0,0 +1,110 @@
+package com.fran.spring_boot_neo4j.objects;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object for a single ancestor in a flat lineage.
+ * <p>
+ * Every ancestor appears once, even when it is reached through several lines. Its depth is the
+ * smallest number of generations between it and the samurai the lineage was requested for, and
+ * its children list holds every child within the lineage together with the type of the
+ * relationship.
+ */
+public class AncestorDTO {
+
+    private String identifier;
+    private String givenName;
+    private String familyName;
+    private String nickName;
+    private LocalDate birthDate;
+    private LocalDate deathDate;
+    private int depth;
+    private List<Child> children = new ArrayList<>();
+
+    /**
+     * Constructs a new {@code AncestorDTO}.
+     *
+     * @param identifier the identifier of the ancestor
+     * @param givenName  the given name of the ancestor
+     * @param familyName the family name of the ancestor
+     * @param depth      the number of generations between the ancestor and the samurai
+     */
+    public AncestorDTO(String identifier, String givenName, String familyName, int depth) {
+        this.identifier = identifier;
+        this.givenName = givenName;
+        this.familyName = familyName;
+        this.depth = depth;
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public String getGivenName() {
+        return givenName;
+    }
+
+    public String getFamilyName() {
+        return familyName;
+    }
+
+    public String getNickName() {
+        return nickName;
+    }
+
+    public void setNickName(String nickName) {
+        this.nickName = nickName;
+    }
+
+    public LocalDate getBirthDate() {
+        return birthDate;
+    }
+
+    public void setBirthDate(LocalDate birthDate) {
+        this.birthDate = birthDate;
+    }
+
+    public LocalDate getDeathDate() {
+        return deathDate;
+    }
+
+    public void setDeathDate(LocalDate deathDate) {
+        this.deathDate = deathDate;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public List<Child> getChildren() {
+        return children;
+    }
+
+    public void addChild(String childIdentifier, String relationshipType) {
+        this.children.add(new Child(childIdentifier, relationshipType));
+    }
+
+    /**
+     * A child of an ancestor within the lineage.
+     */
+    public static class Child {
+
+        private String identifier;
+        private String relationshipType;
+
+        public Child(String identifier, String relationshipType) {
+            this.identifier = identifier;
+            this.relationshipType = relationshipType;
+        }
+
+        public String getIdentifier() {
+            return identifier;
+        }
+
+        public String getRelationshipType() {
+            return relationshipType;
+        }
+    }
+}
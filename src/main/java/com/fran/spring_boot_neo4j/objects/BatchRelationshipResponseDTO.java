@@ -0,0 +1,39 @@
+package com.fran.spring_boot_neo4j.objects;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the response of a batch relationship creation.
+ */
+public class BatchRelationshipResponseDTO {
+
+    private long linked;
+    private List<Integer> skipped;
+    private List<String> unmatchedIdentifiers;
+
+    /**
+     * Constructs a new {@code BatchRelationshipResponseDTO}.
+     *
+     * @param linked               the number of relationships that were created or already existed
+     * @param skipped              the positions of the relationships that were not created
+     * @param unmatchedIdentifiers the identifiers that did not match any samurai
+     */
+    public BatchRelationshipResponseDTO(long linked, List<Integer> skipped,
+        List<String> unmatchedIdentifiers) {
+        this.linked = linked;
+        this.skipped = skipped;
+        this.unmatchedIdentifiers = unmatchedIdentifiers;
+    }
+
+    public long getLinked() {
+        return linked;
+    }
+
+    public List<Integer> getSkipped() {
+        return skipped;
+    }
+
+    public List<String> getUnmatchedIdentifiers() {
+        return unmatchedIdentifiers;
+    }
+}
@@ -0,0 +1,52 @@
+package com.fran.spring_boot_neo4j.objects;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the response of a bulk samurai import.
+ */
+public class BulkImportResponseDTO {
+
+    private long created;
+    private long conflicts;
+    private long missingParents;
+    private long invalid;
+    private List<BulkImportResultDTO> results;
+
+    /**
+     * Constructs a new {@code BulkImportResponseDTO} and counts the outcomes of the results.
+     *
+     * @param results the per-record results, in the order of the imported records
+     */
+    public BulkImportResponseDTO(List<BulkImportResultDTO> results) {
+        this.results = results;
+        for (BulkImportResultDTO result : results) {
+            switch (result.getStatus()) {
+                case CREATED -> created++;
+                case CONFLICT -> conflicts++;
+                case PARENT_NOT_FOUND -> missingParents++;
+                case INVALID -> invalid++;
+            }
+        }
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    public long getMissingParents() {
+        return missingParents;
+    }
+
+    public long getInvalid() {
+        return invalid;
+    }
+
+    public List<BulkImportResultDTO> getResults() {
+        return results;
+    }
+}
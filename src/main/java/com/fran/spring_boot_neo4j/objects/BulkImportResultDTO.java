@@ -0,0 +1,55 @@
+package com.fran.spring_boot_neo4j.objects;
+
+/**
+ * Data Transfer Object for the outcome of a single record of a bulk samurai import.
+ */
+public class BulkImportResultDTO {
+
+    /**
+     * Outcome of an imported record.
+     */
+    public enum Status {
+        CREATED, CONFLICT, PARENT_NOT_FOUND, INVALID
+    }
+
+    private int index;
+    private String identifier;
+    private Status status;
+
+    /**
+     * Constructs a new {@code BulkImportResultDTO}.
+     *
+     * @param index      the position of the record in the import
+     * @param identifier the identifier of the created samurai, or {@code null} if none was created
+     * @param status     the outcome of the record
+     */
+    public BulkImportResultDTO(int index, String identifier, Status status) {
+        this.index = index;
+        this.identifier = identifier;
+        this.status = status;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public void setIdentifier(String identifier) {
+        this.identifier = identifier;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,48 @@
+package com.fran.spring_boot_neo4j.objects;
+
+import com.fran.spring_boot_neo4j.bulkhead.Bulkhead;
+
+/**
+ * Data Transfer Object for the state of a {@link Bulkhead}.
+ */
+public class BulkheadStatsDTO {
+
+    private String name;
+    private int maxConcurrent;
+    private int active;
+    private int queued;
+    private long rejected;
+
+    /**
+     * Constructs a new {@code BulkheadStatsDTO} from the current state of a bulkhead.
+     *
+     * @param bulkhead the bulkhead
+     */
+    public BulkheadStatsDTO(Bulkhead bulkhead) {
+        this.name = bulkhead.getName();
+        this.maxConcurrent = bulkhead.getMaxConcurrent();
+        this.active = bulkhead.getActive();
+        this.queued = bulkhead.getQueued();
+        this.rejected = bulkhead.getRejected();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+}
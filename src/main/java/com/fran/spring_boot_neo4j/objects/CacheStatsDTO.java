@@ -0,0 +1,49 @@
+package com.fran.spring_boot_neo4j.objects;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Data Transfer Object for the statistics of an in-process cache.
+ */
+public class CacheStatsDTO {
+
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+
+    /**
+     * Constructs a new {@code CacheStatsDTO} from a statistics snapshot.
+     *
+     * @param size  the estimated number of cached entries
+     * @param stats the statistics snapshot of the cache
+     */
+    public CacheStatsDTO(long size, CacheStats stats) {
+        this.size = size;
+        this.hitCount = stats.hitCount();
+        this.missCount = stats.missCount();
+        this.hitRate = stats.hitRate();
+        this.evictionCount = stats.evictionCount();
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+}
@@ -0,0 +1,165 @@
+package com.fran.spring_boot_neo4j.objects;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.models.enums.BirthSex;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object for an offspring tree in flat form.
+ * <p>
+ * The samurai are listed once each in depth-first order, the root first. The tree is described
+ * by index: {@code parents[i]} is the index of the parent of node {@code i}, which always comes
+ * before it, and {@code relationships[i]} is the index of its relationship type in
+ * {@code relationshipTypes}. Both are {@code -1} for the root. Nodes whose offspring were cut by
+ * the bounds are listed in {@code continued}; their branch is expanded by replacing
+ * {@code {identifier}} in {@code continuation} with their identifier.
+ */
+public class FlatSamuraiTreeDTO {
+
+    private List<Node> nodes;
+    private int[] parents;
+    private List<String> relationshipTypes;
+    private int[] relationships;
+
+    // Only used by bounded trees that were cut off
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean truncated;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private int[] continued;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String continuation;
+
+    /**
+     * Constructs a new {@code FlatSamuraiTreeDTO}.
+     *
+     * @param nodes             the samurai of the tree, root first
+     * @param parents           the index of the parent of every node, {@code -1} for the root
+     * @param relationshipTypes the distinct relationship types of the tree
+     * @param relationships     the index of the relationship type of every node with its parent,
+     *                          {@code -1} for the root
+     */
+    public FlatSamuraiTreeDTO(List<Node> nodes, int[] parents, List<String> relationshipTypes,
+        int[] relationships) {
+        this.nodes = nodes;
+        this.parents = parents;
+        this.relationshipTypes = relationshipTypes;
+        this.relationships = relationships;
+    }
+
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    public int[] getParents() {
+        return parents;
+    }
+
+    public List<String> getRelationshipTypes() {
+        return relationshipTypes;
+    }
+
+    public int[] getRelationships() {
+        return relationships;
+    }
+
+    public Boolean getTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(Boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    public int[] getContinued() {
+        return continued;
+    }
+
+    public void setContinued(int[] continued) {
+        this.continued = continued;
+    }
+
+    public String getContinuation() {
+        return continuation;
+    }
+
+    public void setContinuation(String continuation) {
+        this.continuation = continuation;
+    }
+
+    /**
+     * A samurai of the tree, without any reference to other nodes.
+     */
+    public static class Node {
+
+        private String identifier;
+        private String givenName;
+        private String familyName;
+        private String nickName;
+        private BirthSex sex;
+        private LocalDate birthDate;
+        private LocalDate deathDate;
+
+        // Subtree statistics, omitted when they have not been computed
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Integer descendantCount;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Integer livingDescendantCount;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Integer generationDepth;
+
+        public Node(Samurai samurai) {
+            this.identifier = samurai.getIdentifier();
+            this.givenName = samurai.getGivenName();
+            this.familyName = samurai.getFamilyName();
+            this.nickName = samurai.getNickName();
+            this.sex = samurai.getSex();
+            this.birthDate = samurai.getBirthDate();
+            this.deathDate = samurai.getDeathDate();
+            this.descendantCount = samurai.getDescendantCount();
+            this.livingDescendantCount = samurai.getLivingDescendantCount();
+            this.generationDepth = samurai.getGenerationDepth();
+        }
+
+        public String getIdentifier() {
+            return identifier;
+        }
+
+        public String getGivenName() {
+            return givenName;
+        }
+
+        public String getFamilyName() {
+            return familyName;
+        }
+
+        public String getNickName() {
+            return nickName;
+        }
+
+        public BirthSex getSex() {
+            return sex;
+        }
+
+        public LocalDate getBirthDate() {
+            return birthDate;
+        }
+
+        public LocalDate getDeathDate() {
+            return deathDate;
+        }
+
+        public Integer getDescendantCount() {
+            return descendantCount;
+        }
+
+        public Integer getLivingDescendantCount() {
+            return livingDescendantCount;
+        }
+
+        public Integer getGenerationDepth() {
+            return generationDepth;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.fran.spring_boot_neo4j.objects;
+
+import com.fran.spring_boot_neo4j.graph.GenealogyGraph;
+
+/**
+ * Data Transfer Object for the size of a {@link GenealogyGraph}.
+ */
+public class GenealogyGraphStatsDTO {
+
+    private int samuraiCount;
+    private int relationshipCount;
+
+    /**
+     * Constructs a new {@code GenealogyGraphStatsDTO} from a genealogy graph.
+     *
+     * @param graph the genealogy graph
+     */
+    public GenealogyGraphStatsDTO(GenealogyGraph graph) {
+        this.samuraiCount = graph.samuraiCount();
+        this.relationshipCount = graph.relationshipCount();
+    }
+
+    public int getSamuraiCount() {
+        return samuraiCount;
+    }
+
+    public int getRelationshipCount() {
+        return relationshipCount;
+    }
+}
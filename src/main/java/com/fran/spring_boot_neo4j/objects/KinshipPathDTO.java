@@ -0,0 +1,139 @@
+package com.fran.spring_boot_neo4j.objects;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the shortest path of parent-child relationships between two samurai.
+ * <p>
+ * The first step is the samurai the path starts from. Every following step is the next samurai on
+ * the path together with the direction and type of the relationship leading to it.
+ */
+public class KinshipPathDTO {
+
+    /**
+     * Direction of a step: {@code UP} goes from a child to its parent, {@code DOWN} from a parent
+     * to its child.
+     */
+    public enum Direction {
+        UP, DOWN;
+
+        /**
+         * Returns the direction walking the same relationship the other way.
+         *
+         * @return {@code DOWN} for {@code UP} and {@code UP} for {@code DOWN}
+         */
+        public Direction opposite() {
+            return this == UP ? DOWN : UP;
+        }
+    }
+
+    private String fromIdentifier;
+    private String toIdentifier;
+    private List<Step> steps = new ArrayList<>();
+
+    /**
+     * Constructs a new {@code KinshipPathDTO}.
+     *
+     * @param fromIdentifier the identifier of the samurai the path starts from
+     * @param toIdentifier   the identifier of the samurai the path ends at
+     */
+    public KinshipPathDTO(String fromIdentifier, String toIdentifier) {
+        this.fromIdentifier = fromIdentifier;
+        this.toIdentifier = toIdentifier;
+    }
+
+    public String getFromIdentifier() {
+        return fromIdentifier;
+    }
+
+    public String getToIdentifier() {
+        return toIdentifier;
+    }
+
+    /**
+     * Returns the number of relationships on the path.
+     *
+     * @return the length of the path, {@code 0} when it starts and ends at the same samurai
+     */
+    public int getDistance() {
+        return Math.max(steps.size() - 1, 0);
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    public void addStep(Step step) {
+        this.steps.add(step);
+    }
+
+    /**
+     * Returns the same path walked the other way round. Every relationship keeps its type and
+     * is entered from the opposite direction.
+     *
+     * @return a new path from {@code toIdentifier} to {@code fromIdentifier}
+     */
+    public KinshipPathDTO reversed() {
+        KinshipPathDTO reversed = new KinshipPathDTO(toIdentifier, fromIdentifier);
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            Step step = steps.get(i);
+            Step leaving = i + 1 < steps.size() ? steps.get(i + 1) : null;
+            reversed.addStep(new Step(step.getIdentifier(), step.getGivenName(),
+                step.getFamilyName(), leaving == null ? null : leaving.getDirection().opposite(),
+                leaving == null ? null : leaving.getRelationshipType()));
+        }
+        return reversed;
+    }
+
+    /**
+     * A samurai on the path and how it was reached from the previous one.
+     */
+    public static class Step {
+
+        private String identifier;
+        private String givenName;
+        private String familyName;
+        private Direction direction;
+        private String relationshipType;
+
+        /**
+         * Constructs a new {@code Step}.
+         *
+         * @param identifier       the identifier of the samurai
+         * @param givenName        the given name of the samurai
+         * @param familyName       the family name of the samurai
+         * @param direction        the direction of the relationship, or {@code null} for the first
+         *                         step
+         * @param relationshipType the type of the relationship, or {@code null} for the first step
+         */
+        public Step(String identifier, String givenName, String familyName, Direction direction,
+            String relationshipType) {
+            this.identifier = identifier;
+            this.givenName = givenName;
+            this.familyName = familyName;
+            this.direction = direction;
+            this.relationshipType = relationshipType;
+        }
+
+        public String getIdentifier() {
+            return identifier;
+        }
+
+        public String getGivenName() {
+            return givenName;
+        }
+
+        public String getFamilyName() {
+            return familyName;
+        }
+
+        public Direction getDirection() {
+            return direction;
+        }
+
+        public String getRelationshipType() {
+            return relationshipType;
+        }
+    }
+}
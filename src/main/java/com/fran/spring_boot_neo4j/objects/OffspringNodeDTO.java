@@ -0,0 +1,86 @@
+package com.fran.spring_boot_neo4j.objects;
+
+/**
+ * Data Transfer Object for a single node of a streamed offspring tree.
+ * <p>
+ * Unlike {@link SamuraiDTO}, the node does not hold its offspring; the tree is described by the
+ * parent identifier and the depth of each node instead.
+ */
+public class OffspringNodeDTO {
+
+    private String identifier;
+    private String parentIdentifier;
+    private int depth;
+    private String relationshipType;
+    private String givenName;
+    private String familyName;
+
+    /**
+     * Constructs a new {@code OffspringNodeDTO}.
+     *
+     * @param identifier       the identifier of the samurai
+     * @param parentIdentifier the identifier of the parent samurai, or {@code null} for the root
+     * @param depth            the depth of the node, {@code 0} for the root
+     * @param relationshipType the type of the relationship with the parent, or {@code null} for
+     *                         the root
+     * @param givenName        the given name of the samurai
+     * @param familyName       the family name of the samurai
+     */
+    public OffspringNodeDTO(String identifier, String parentIdentifier, int depth,
+        String relationshipType, String givenName, String familyName) {
+        this.identifier = identifier;
+        this.parentIdentifier = parentIdentifier;
+        this.depth = depth;
+        this.relationshipType = relationshipType;
+        this.givenName = givenName;
+        this.familyName = familyName;
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public void setIdentifier(String identifier) {
+        this.identifier = identifier;
+    }
+
+    public String getParentIdentifier() {
+        return parentIdentifier;
+    }
+
+    public void setParentIdentifier(String parentIdentifier) {
+        this.parentIdentifier = parentIdentifier;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public String getRelationshipType() {
+        return relationshipType;
+    }
+
+    public void setRelationshipType(String relationshipType) {
+        this.relationshipType = relationshipType;
+    }
+
+    public String getGivenName() {
+        return givenName;
+    }
+
+    public void setGivenName(String givenName) {
+        this.givenName = givenName;
+    }
+
+    public String getFamilyName() {
+        return familyName;
+    }
+
+    public void setFamilyName(String familyName) {
+        this.familyName = familyName;
+    }
+}
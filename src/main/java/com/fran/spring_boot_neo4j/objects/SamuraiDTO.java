@@ -1,5 +1,6 @@
 package com.fran.spring_boot_neo4j.objects;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fran.spring_boot_neo4j.models.enums.BirthSex;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -20,6 +21,26 @@ public class SamuraiDTO {
     private String relationshipTypeWithParent;
     private List<SamuraiDTO> offspring = new ArrayList<>();
 
+    // Only used by ancestor trees, omitted from offspring trees
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String relationshipTypeWithChild;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<SamuraiDTO> parents = new ArrayList<>();
+
+    // Subtree statistics, omitted when they have not been computed
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer descendantCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer livingDescendantCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer generationDepth;
+
+    // Only used by bounded trees that were cut off
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean truncated;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String continuation;
+
     /**
      * Constructs a new {@code SamuraiDTO} with the specified given name and family name.
      *
@@ -191,4 +212,94 @@ public class SamuraiDTO {
     public void addOffspring(SamuraiDTO offspring) {
         this.offspring.add(offspring);
     }
+
+    // Ancestor relationship type getters and setters
+
+
+    public String getRelationshipTypeWithChild() {
+        return relationshipTypeWithChild;
+    }
+
+
+    public void setRelationshipTypeWithChild(String relationshipType) {
+        this.relationshipTypeWithChild = relationshipType;
+    }
+
+    // Parent-related getters and setters
+
+
+    public List<SamuraiDTO> getParents() {
+        return parents;
+    }
+
+
+    public void setParents(List<SamuraiDTO> parents) {
+        this.parents = parents;
+    }
+
+
+    public void addParent(SamuraiDTO parent) {
+        this.parents.add(parent);
+    }
+
+    // Truncation getters and setters
+
+
+    public Boolean getTruncated() {
+        return truncated;
+    }
+
+
+    public void setTruncated(Boolean truncated) {
+        this.truncated = truncated;
+    }
+
+
+    public String getContinuation() {
+        return continuation;
+    }
+
+
+    public void setContinuation(String continuation) {
+        this.continuation = continuation;
+    }
+
+    // Subtree statistics getters and setters
+
+
+    public Integer getDescendantCount() {
+        return descendantCount;
+    }
+
+
+    public void setDescendantCount(Integer descendantCount) {
+        this.descendantCount = descendantCount;
+    }
+
+
+    public Integer getLivingDescendantCount() {
+        return livingDescendantCount;
+    }
+
+
+    public void setLivingDescendantCount(Integer livingDescendantCount) {
+        this.livingDescendantCount = livingDescendantCount;
+    }
+
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Integer getDeceasedDescendantCount() {
+        return descendantCount != null && livingDescendantCount != null
+            ? descendantCount - livingDescendantCount : null;
+    }
+
+
+    public Integer getGenerationDepth() {
+        return generationDepth;
+    }
+
+
+    public void setGenerationDepth(Integer generationDepth) {
+        this.generationDepth = generationDepth;
+    }
 }
\ No newline at end of file
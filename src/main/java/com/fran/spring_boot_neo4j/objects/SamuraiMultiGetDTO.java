@@ -0,0 +1,31 @@
+package com.fran.spring_boot_neo4j.objects;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the samurai found for a list of identifiers.
+ */
+public class SamuraiMultiGetDTO {
+
+    private List<SamuraiDTO> items;
+    private List<String> missingIdentifiers;
+
+    /**
+     * Constructs a new {@code SamuraiMultiGetDTO}.
+     *
+     * @param items              the found samurai, in the order of their identifiers
+     * @param missingIdentifiers the identifiers that did not match any samurai, in request order
+     */
+    public SamuraiMultiGetDTO(List<SamuraiDTO> items, List<String> missingIdentifiers) {
+        this.items = items;
+        this.missingIdentifiers = missingIdentifiers;
+    }
+
+    public List<SamuraiDTO> getItems() {
+        return items;
+    }
+
+    public List<String> getMissingIdentifiers() {
+        return missingIdentifiers;
+    }
+}
@@ -0,0 +1,31 @@
+package com.fran.spring_boot_neo4j.objects;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for one page of a samurai listing.
+ */
+public class SamuraiPageDTO {
+
+    private List<SamuraiDTO> items;
+    private String nextCursor;
+
+    /**
+     * Constructs a new {@code SamuraiPageDTO}.
+     *
+     * @param items      the samurai on the page
+     * @param nextCursor the cursor of the next page, or {@code null} if this is the last page
+     */
+    public SamuraiPageDTO(List<SamuraiDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<SamuraiDTO> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,50 @@
+package com.fran.spring_boot_neo4j.objects;
+
+import com.fran.spring_boot_neo4j.models.Samurai;
+
+/**
+ * Data Transfer Object for the subtree statistics of a {@link Samurai}. The statistics are
+ * {@code null} until they have been computed for the samurai.
+ */
+public class SubtreeStatsDTO {
+
+    private String identifier;
+    private Integer descendantCount;
+    private Integer livingDescendantCount;
+    private Integer deceasedDescendantCount;
+    private Integer generationDepth;
+
+    /**
+     * Constructs a new {@code SubtreeStatsDTO} from the statistics stored on a samurai.
+     *
+     * @param samurai the samurai
+     */
+    public SubtreeStatsDTO(Samurai samurai) {
+        this.identifier = samurai.getIdentifier();
+        this.descendantCount = samurai.getDescendantCount();
+        this.livingDescendantCount = samurai.getLivingDescendantCount();
+        this.deceasedDescendantCount = descendantCount != null && livingDescendantCount != null
+            ? descendantCount - livingDescendantCount : null;
+        this.generationDepth = samurai.getGenerationDepth();
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public Integer getDescendantCount() {
+        return descendantCount;
+    }
+
+    public Integer getLivingDescendantCount() {
+        return livingDescendantCount;
+    }
+
+    public Integer getDeceasedDescendantCount() {
+        return deceasedDescendantCount;
+    }
+
+    public Integer getGenerationDepth() {
+        return generationDepth;
+    }
+}
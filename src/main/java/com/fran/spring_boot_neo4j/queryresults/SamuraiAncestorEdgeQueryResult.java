@@ -0,0 +1,41 @@
+package com.fran.spring_boot_neo4j.queryresults;
+
+import com.fran.spring_boot_neo4j.models.Samurai;
+
+/**
+ * Query result class for retrieving a single parent-child edge of a samurai lineage: the child
+ * identifier, the parent and the relationship type.
+ */
+public class SamuraiAncestorEdgeQueryResult {
+
+    private String childIdentifier;
+    private Samurai parent;
+    private String relationshipType;
+
+    public SamuraiAncestorEdgeQueryResult() {
+    }
+
+    public String getChildIdentifier() {
+        return childIdentifier;
+    }
+
+    public void setChildIdentifier(String childIdentifier) {
+        this.childIdentifier = childIdentifier;
+    }
+
+    public Samurai getParent() {
+        return parent;
+    }
+
+    public void setParent(Samurai parent) {
+        this.parent = parent;
+    }
+
+    public String getRelationshipType() {
+        return relationshipType;
+    }
+
+    public void setRelationshipType(String relationshipType) {
+        this.relationshipType = relationshipType;
+    }
+}
@@ -0,0 +1,41 @@
+package com.fran.spring_boot_neo4j.queryresults;
+
+import com.fran.spring_boot_neo4j.models.Samurai;
+
+/**
+ * Query result class for the atomic creation of a samurai: the samurai holding the requested
+ * name, whether it was created by the query and whether the requested parent was found.
+ */
+public class SamuraiCreateQueryResult {
+
+    private Samurai samurai;
+    private Boolean created;
+    private Boolean parentFound;
+
+    public SamuraiCreateQueryResult() {
+    }
+
+    public Samurai getSamurai() {
+        return samurai;
+    }
+
+    public void setSamurai(Samurai samurai) {
+        this.samurai = samurai;
+    }
+
+    public Boolean getCreated() {
+        return created;
+    }
+
+    public void setCreated(Boolean created) {
+        this.created = created;
+    }
+
+    public Boolean getParentFound() {
+        return parentFound;
+    }
+
+    public void setParentFound(Boolean parentFound) {
+        this.parentFound = parentFound;
+    }
+}
@@ -0,0 +1,32 @@
+package com.fran.spring_boot_neo4j.queryresults;
+
+import java.util.List;
+
+/**
+ * Query result class for a samurai whose generation depth changed, with the identifiers of its
+ * parents.
+ */
+public class SamuraiDepthQueryResult {
+
+    private String identifier;
+    private List<String> parentIdentifiers;
+
+    public SamuraiDepthQueryResult() {
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public void setIdentifier(String identifier) {
+        this.identifier = identifier;
+    }
+
+    public List<String> getParentIdentifiers() {
+        return parentIdentifiers;
+    }
+
+    public void setParentIdentifiers(List<String> parentIdentifiers) {
+        this.parentIdentifiers = parentIdentifiers;
+    }
+}
@@ -0,0 +1,41 @@
+package com.fran.spring_boot_neo4j.queryresults;
+
+import com.fran.spring_boot_neo4j.models.Samurai;
+
+/**
+ * Query result class for retrieving a single parent-child edge of a samurai tree: the parent
+ * identifier, the offspring and the relationship type.
+ */
+public class SamuraiEdgeQueryResult {
+
+    private String parentIdentifier;
+    private Samurai offspring;
+    private String relationshipType;
+
+    public SamuraiEdgeQueryResult() {
+    }
+
+    public String getParentIdentifier() {
+        return parentIdentifier;
+    }
+
+    public void setParentIdentifier(String parentIdentifier) {
+        this.parentIdentifier = parentIdentifier;
+    }
+
+    public Samurai getOffspring() {
+        return offspring;
+    }
+
+    public void setOffspring(Samurai offspring) {
+        this.offspring = offspring;
+    }
+
+    public String getRelationshipType() {
+        return relationshipType;
+    }
+
+    public void setRelationshipType(String relationshipType) {
+        this.relationshipType = relationshipType;
+    }
+}
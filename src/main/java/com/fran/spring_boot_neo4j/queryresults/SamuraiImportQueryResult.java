@@ -0,0 +1,38 @@
+package com.fran.spring_boot_neo4j.queryresults;
+
+/**
+ * Query result class for the outcome of a single record of a bulk samurai import.
+ */
+public class SamuraiImportQueryResult {
+
+    private Long position;
+    private String identifier;
+    private String status;
+
+    public SamuraiImportQueryResult() {
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    public void setIdentifier(String identifier) {
+        this.identifier = identifier;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
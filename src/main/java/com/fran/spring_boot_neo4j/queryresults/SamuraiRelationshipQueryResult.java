@@ -0,0 +1,47 @@
+package com.fran.spring_boot_neo4j.queryresults;
+
+/**
+ * Query result class for the outcome of a single row of a batch relationship creation.
+ */
+public class SamuraiRelationshipQueryResult {
+
+    private Long position;
+    private Boolean parentFound;
+    private Boolean childFound;
+    private String relationshipId;
+
+    public SamuraiRelationshipQueryResult() {
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+
+    public Boolean getParentFound() {
+        return parentFound;
+    }
+
+    public void setParentFound(Boolean parentFound) {
+        this.parentFound = parentFound;
+    }
+
+    public Boolean getChildFound() {
+        return childFound;
+    }
+
+    public void setChildFound(Boolean childFound) {
+        this.childFound = childFound;
+    }
+
+    public String getRelationshipId() {
+        return relationshipId;
+    }
+
+    public void setRelationshipId(String relationshipId) {
+        this.relationshipId = relationshipId;
+    }
+}
@@ -0,0 +1,33 @@
+package com.fran.spring_boot_neo4j.queryresults;
+
+import java.util.List;
+
+/**
+ * Query result class for retrieving a single parent-child edge of a bounded samurai tree. Next to
+ * the edge itself it carries the depth of the offspring and the identifiers of the offspring's own
+ * offspring, whether they made it into the tree or not.
+ */
+public class SamuraiTreeEdgeQueryResult extends SamuraiEdgeQueryResult {
+
+    private Long depth;
+    private List<String> offspringIdentifiers;
+
+    public SamuraiTreeEdgeQueryResult() {
+    }
+
+    public Long getDepth() {
+        return depth;
+    }
+
+    public void setDepth(Long depth) {
+        this.depth = depth;
+    }
+
+    public List<String> getOffspringIdentifiers() {
+        return offspringIdentifiers;
+    }
+
+    public void setOffspringIdentifiers(List<String> offspringIdentifiers) {
+        this.offspringIdentifiers = offspringIdentifiers;
+    }
+}
@@ -0,0 +1,40 @@
+package com.fran.spring_boot_neo4j.repositories;
+
+import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiEdgeQueryResult;
+import java.util.Collection;
+import org.springframework.data.neo4j.repository.ReactiveNeo4jRepository;
+import org.springframework.data.neo4j.repository.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking repository interface for reading {@link Samurai} entities.
+ */
+@Repository
+public interface ReactiveSamuraiRepository extends ReactiveNeo4jRepository<Samurai, Long> {
+
+    /**
+     * Finds a samurai by its identifier.
+     *
+     * @param identifier the identifier of the samurai
+     * @return a {@link Mono} emitting the found samurai, or completing empty if no samurai found
+     */
+    Mono<Samurai> findSamuraiByIdentifier(String identifier);
+
+    /**
+     * Finds the offspring of several samurai at once.
+     *
+     * @param identifiers      the identifiers of the parent samurai
+     * @param relationshipType the only relationship type to follow, or {@code null} for all
+     * @return a {@link Flux} of edges with parent identifier, offspring and relationship type
+     */
+    @Query("MATCH (parent:Samurai)-[r:PARENT_CHILD]->(offspring:Samurai) "
+        + "WHERE parent.identifier IN $identifiers "
+        + "AND ($relationshipType IS NULL OR r.type = $relationshipType) "
+        + "RETURN parent.identifier AS parentIdentifier, offspring AS offspring, "
+        + "r.type AS relationshipType")
+    Flux<SamuraiEdgeQueryResult> findOffspringEdgesByParentIdentifiers(
+        Collection<String> identifiers, String relationshipType);
+}
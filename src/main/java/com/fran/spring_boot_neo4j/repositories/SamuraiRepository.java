@@ -1,9 +1,17 @@
 package com.fran.spring_boot_neo4j.repositories;
 
 import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiAncestorEdgeQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiCreateQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiDepthQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiImportQueryResult;
 import com.fran.spring_boot_neo4j.queryresults.SamuraiOffspringQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiRelationshipQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiTreeEdgeQueryResult;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.springframework.data.neo4j.repository.Neo4jRepository;
 import org.springframework.data.neo4j.repository.query.Query;
@@ -23,6 +31,15 @@ public interface SamuraiRepository extends Neo4jRepository<Samurai, Long> {
      */
     Optional<Samurai> findSamuraiByIdentifier(String identifier);
 
+    /**
+     * Finds the samurai with any of the given identifiers, using the identifier index.
+     *
+     * @param identifiers the identifiers of the samurai
+     * @return the found samurai, in no particular order; identifiers without a samurai are
+     * skipped
+     */
+    List<Samurai> findAllByIdentifierIn(Collection<String> identifiers);
+
     /**
      * Finds a samurai by its given name and family name.
      *
@@ -56,17 +73,87 @@ public interface SamuraiRepository extends Neo4jRepository<Samurai, Long> {
      */
     Optional<Samurai> findSamuraiByDeathDate(LocalDate deathDate);
 
+    /**
+     * Finds one page of samurai ordered by identifier, starting after a given identifier.
+     * <p>
+     * The page is read from the identifier index in order, so its cost does not depend on how many
+     * pages come before it. Filters that are {@code null} are ignored; date bounds are inclusive
+     * for the lower and exclusive for the upper bound.
+     *
+     * @param afterIdentifier the identifier of the last samurai of the previous page, or an empty
+     *                        string for the first page
+     * @param familyName      the family name to match
+     * @param socialStatus    the social status to match
+     * @param clanStatus      the clan status to match
+     * @param sex             the sex to match
+     * @param bornFrom        the earliest birth date
+     * @param bornBefore      the date all birth dates must be before
+     * @param diedFrom        the earliest death date
+     * @param diedBefore      the date all death dates must be before
+     * @param limit           the maximum number of samurai to return
+     * @return the samurai of the page
+     */
+    @Query("MATCH (samurai:Samurai) "
+        + "WHERE samurai.identifier > $afterIdentifier "
+        + "AND ($familyName IS NULL OR samurai.familyName = $familyName) "
+        + "AND ($socialStatus IS NULL OR samurai.socialStatus = $socialStatus) "
+        + "AND ($clanStatus IS NULL OR samurai.clanStatus = $clanStatus) "
+        + "AND ($sex IS NULL OR samurai.sex = $sex) "
+        + "AND ($bornFrom IS NULL OR samurai.birthDate >= $bornFrom) "
+        + "AND ($bornBefore IS NULL OR samurai.birthDate < $bornBefore) "
+        + "AND ($diedFrom IS NULL OR samurai.deathDate >= $diedFrom) "
+        + "AND ($diedBefore IS NULL OR samurai.deathDate < $diedBefore) "
+        + "RETURN samurai ORDER BY samurai.identifier LIMIT $limit")
+    List<Samurai> findPage(String afterIdentifier, String familyName, String socialStatus,
+        String clanStatus, String sex, LocalDate bornFrom, LocalDate bornBefore,
+        LocalDate diedFrom, LocalDate diedBefore, int limit);
+
+    /**
+     * Creates a samurai and optionally links it to its parent in a single statement.
+     * <p>
+     * The samurai is merged on its given and family name, which are backed by a uniqueness
+     * constraint, so concurrent creates of the same name cannot both succeed. Nothing is written
+     * when a parent identifier is given but the parent does not exist.
+     *
+     * @param givenName        the given name of the samurai
+     * @param familyName       the family name of the samurai
+     * @param properties       the properties of the new samurai, including its identifier
+     * @param parentIdentifier the identifier of the parent samurai, or {@code null}
+     * @param relationshipType the type of the relationship with the parent
+     * @return the samurai holding the name, whether it was created and whether the parent was
+     * found
+     */
+    @Query("OPTIONAL MATCH (parent:Samurai {identifier: $parentIdentifier}) "
+        + "WITH parent, ($parentIdentifier IS NULL OR parent IS NOT NULL) AS parentFound "
+        + "FOREACH (ignored IN CASE WHEN parentFound THEN [1] ELSE [] END | "
+        + "MERGE (samurai:Samurai {givenName: $givenName, familyName: $familyName}) "
+        + "ON CREATE SET samurai += $properties "
+        + "FOREACH (p IN CASE WHEN parent IS NOT NULL "
+        + "AND samurai.identifier = $properties.identifier THEN [parent] ELSE [] END | "
+        + "MERGE (p)-[:PARENT_CHILD {type: $relationshipType}]->(samurai))) "
+        + "WITH parentFound "
+        + "OPTIONAL MATCH (samurai:Samurai {givenName: $givenName, familyName: $familyName}) "
+        + "RETURN samurai AS samurai, samurai.identifier = $properties.identifier AS created, "
+        + "parentFound")
+    SamuraiCreateQueryResult createSamurai(String givenName, String familyName,
+        Map<String, Object> properties, String parentIdentifier, String relationshipType);
+
     /**
      * Creates a parent-child relationship between two samurai.
      *
      * @param parentIdentifier the identifier of the parent samurai
      * @param childIdentifier  the identifier of the child samurai
      * @param relationshipType the type of the relationship
+     * @return the element id of the relationship if it was created, or {@code null} if it already
+     * existed or either samurai was not found
      */
     @Query(
         "MATCH (parent:Samurai {identifier: $parentIdentifier}), (child:Samurai {identifier: $childIdentifier}) "
-            + "MERGE (parent)-[r:PARENT_CHILD {type: $relationshipType}]->(child) " + "RETURN r")
-    void createParentChildRelationship(String parentIdentifier, String childIdentifier,
+            + "OPTIONAL MATCH (parent)-[existing:PARENT_CHILD {type: $relationshipType}]->(child) "
+            + "WITH parent, child, existing "
+            + "MERGE (parent)-[r:PARENT_CHILD {type: $relationshipType}]->(child) "
+            + "RETURN CASE WHEN existing IS NULL THEN elementId(r) END")
+    String createParentChildRelationship(String parentIdentifier, String childIdentifier,
         String relationshipType);
 
     /**
@@ -78,4 +165,269 @@ public interface SamuraiRepository extends Neo4jRepository<Samurai, Long> {
     @Query("MATCH (parent:Samurai {identifier: $identifier})-[r:PARENT_CHILD]->(offspring:Samurai) "
         + "RETURN offspring AS offspring, r.type AS relationshipType")
     List<SamuraiOffspringQueryResult> findAllOffspringByIdentifierWithType(String identifier);
-}
\ No newline at end of file
+
+    /**
+     * Finds the parent-child edges leaving a set of samurai, one generation of a tree.
+     *
+     * @param parentIdentifiers the identifiers of the parents
+     * @param relationshipType  the only relationship type to follow, or {@code null} for all
+     * @return a flat list of edges with parent identifier, offspring, relationship type and the
+     * identifiers of the offspring's own offspring
+     */
+    @Query("MATCH (parent:Samurai) WHERE parent.identifier IN $parentIdentifiers "
+        + "MATCH (parent)-[r:PARENT_CHILD]->(offspring:Samurai) "
+        + "WHERE $relationshipType IS NULL OR r.type = $relationshipType "
+        + "RETURN parent.identifier AS parentIdentifier, offspring AS offspring, "
+        + "r.type AS relationshipType, "
+        + "[(offspring)-[c:PARENT_CHILD]->(child:Samurai) "
+        + "WHERE $relationshipType IS NULL OR c.type = $relationshipType "
+        + "| child.identifier] AS offspringIdentifiers")
+    List<SamuraiTreeEdgeQueryResult> findOffspringEdgesByParentIdentifiers(
+        List<String> parentIdentifiers, String relationshipType);
+
+    /**
+     * Adds newly created samurai to the descendant counts of all their ancestors.
+     * <p>
+     * A new samurai has no offspring and was not reachable before, so every ancestor gains
+     * exactly one descendant per new samurai, however many lines lead to it. Generation depths
+     * are left to {@link #updateGenerationDepths(List)}.
+     *
+     * @param identifiers the identifiers of the new samurai
+     * @return the identifiers of the ancestors whose statistics changed
+     */
+    @Query("UNWIND $identifiers AS identifier "
+        + "MATCH (samurai:Samurai {identifier: identifier})<-[:PARENT_CHILD*]-(ancestor:Samurai) "
+        + "WITH DISTINCT ancestor, samurai "
+        + "WITH ancestor, count(samurai) AS added, "
+        + "sum(CASE WHEN samurai.deathDate IS NULL THEN 1 ELSE 0 END) AS living "
+        + "SET ancestor.descendantCount = coalesce(ancestor.descendantCount, 0) + added, "
+        + "ancestor.livingDescendantCount = coalesce(ancestor.livingDescendantCount, 0) + living "
+        + "RETURN ancestor.identifier")
+    List<String> addNewSamuraiToAncestorStats(List<String> identifiers);
+
+    /**
+     * Adds the samurai that a new relationship made reachable to the descendant counts of the
+     * parent and all its ancestors.
+     * <p>
+     * The subtree of the child is walked once. Relationships entering it from elsewhere tell
+     * which ancestors already reached which part of it, so only the rest is added to them. The
+     * given pending relationships are treated as not created yet, which lets the relationships
+     * of a batch be counted one after another. They are filtered out relationship by
+     * relationship in quantified path patterns, so the walks keep only distinct samurai instead
+     * of enumerating paths. Generation depths are left to {@link #updateGenerationDepths(List)}.
+     *
+     * @param relationshipId         the element id of the new relationship
+     * @param pendingRelationshipIds the element ids of relationships to ignore
+     * @return the identifiers of the ancestors whose statistics changed
+     */
+    @Query("MATCH (parent:Samurai)-[new:PARENT_CHILD]->(child:Samurai) "
+        + "WHERE elementId(new) = $relationshipId "
+        + "OPTIONAL MATCH (child)(()-[down:PARENT_CHILD "
+        + "WHERE NOT elementId(down) IN $pendingRelationshipIds]->())+(descendant:Samurai) "
+        + "WITH parent, new, collect(DISTINCT descendant) + child AS subtree "
+        + "WHERE NOT parent IN subtree "
+        + "MATCH (parent)(()<-[up:PARENT_CHILD "
+        + "WHERE NOT elementId(up) IN $pendingRelationshipIds]-())*(ancestor:Samurai) "
+        + "WITH new, subtree, collect(DISTINCT ancestor) AS ancestors "
+        + "CALL { "
+        + "WITH new, subtree, ancestors "
+        + "UNWIND subtree AS entry "
+        + "MATCH (outside:Samurai)-[in:PARENT_CHILD]->(entry) "
+        + "WHERE in <> new AND NOT elementId(in) IN $pendingRelationshipIds "
+        + "AND NOT outside IN subtree "
+        + "WITH DISTINCT outside, entry, ancestors "
+        + "MATCH (outside)(()<-[up:PARENT_CHILD "
+        + "WHERE NOT elementId(up) IN $pendingRelationshipIds]-())*(ancestor:Samurai) "
+        + "WHERE ancestor IN ancestors "
+        + "WITH DISTINCT ancestor, entry "
+        + "MATCH (entry)(()-[down:PARENT_CHILD "
+        + "WHERE NOT elementId(down) IN $pendingRelationshipIds]->())*(reached:Samurai) "
+        + "WITH ancestor, count(DISTINCT reached) AS reached, "
+        + "count(DISTINCT CASE WHEN reached.deathDate IS NULL THEN reached END) AS living "
+        + "RETURN collect({ancestor: ancestor, reached: reached, living: living}) AS before } "
+        + "UNWIND ancestors AS ancestor "
+        + "WITH ancestor, [b IN before WHERE b.ancestor = ancestor][0] AS reachedBefore, "
+        + "size(subtree) AS reachable, "
+        + "size([s IN subtree WHERE s.deathDate IS NULL]) AS livingReachable "
+        + "WITH ancestor, reachable - coalesce(reachedBefore.reached, 0) AS added, "
+        + "livingReachable - coalesce(reachedBefore.living, 0) AS living "
+        + "WHERE added > 0 "
+        + "SET ancestor.descendantCount = coalesce(ancestor.descendantCount, 0) + added, "
+        + "ancestor.livingDescendantCount = coalesce(ancestor.livingDescendantCount, 0) + living "
+        + "RETURN ancestor.identifier")
+    List<String> addRelationshipToAncestorStats(String relationshipId,
+        List<String> pendingRelationshipIds);
+
+    /**
+     * Removes a samurai about to be deleted, and the descendants only reachable through it, from
+     * the descendant counts of all its ancestors.
+     * <p>
+     * Works like {@link #addRelationshipToAncestorStats(String, List)} in reverse: relationships
+     * entering the subtree of the samurai below it tell which ancestors keep reaching which part
+     * of it, and the walks are written as the same quantified path patterns. Generation depths
+     * are left to {@link #updateGenerationDepths(List)}.
+     *
+     * @param identifier the identifier of the samurai
+     * @return the identifiers of the ancestors whose statistics changed
+     */
+    @Query("MATCH (samurai:Samurai {identifier: $identifier}) "
+        + "OPTIONAL MATCH (samurai)(()-[:PARENT_CHILD]->())+(descendant:Samurai) "
+        + "WITH samurai, collect(DISTINCT descendant) + samurai AS subtree "
+        + "MATCH (samurai)(()<-[:PARENT_CHILD]-())+(ancestor:Samurai) "
+        + "WITH samurai, subtree, collect(DISTINCT ancestor) AS ancestors "
+        + "CALL { "
+        + "WITH samurai, subtree, ancestors "
+        + "UNWIND subtree AS entry "
+        + "MATCH (outside:Samurai)-[:PARENT_CHILD]->(entry) "
+        + "WHERE entry <> samurai AND NOT outside IN subtree "
+        + "WITH DISTINCT outside, entry, ancestors "
+        + "MATCH (outside)(()<-[:PARENT_CHILD]-())*(ancestor:Samurai) "
+        + "WHERE ancestor IN ancestors "
+        + "WITH DISTINCT ancestor, entry "
+        + "MATCH (entry)(()-[:PARENT_CHILD]->())*(reached:Samurai) "
+        + "WITH ancestor, count(DISTINCT reached) AS reached, "
+        + "count(DISTINCT CASE WHEN reached.deathDate IS NULL THEN reached END) AS living "
+        + "RETURN collect({ancestor: ancestor, reached: reached, living: living}) AS after } "
+        + "UNWIND ancestors AS ancestor "
+        + "WITH ancestor, [a IN after WHERE a.ancestor = ancestor][0] AS reachedAfter, "
+        + "size(subtree) AS reachable, "
+        + "size([s IN subtree WHERE s.deathDate IS NULL]) AS livingReachable "
+        + "WITH ancestor, reachable - coalesce(reachedAfter.reached, 0) AS removed, "
+        + "livingReachable - coalesce(reachedAfter.living, 0) AS living "
+        + "WHERE removed > 0 "
+        + "SET ancestor.descendantCount = coalesce(ancestor.descendantCount, 0) - removed, "
+        + "ancestor.livingDescendantCount = coalesce(ancestor.livingDescendantCount, 0) - living "
+        + "RETURN ancestor.identifier")
+    List<String> removeSamuraiFromAncestorStats(String identifier);
+
+    /**
+     * Sets the generation depth of the given samurai to one more than the largest generation
+     * depth stored on their children, or to {@code 0} for samurai without children.
+     * <p>
+     * Only one generation is updated. The parents of the returned samurai have to be updated
+     * next, until no depth changes any more.
+     *
+     * @param identifiers the identifiers of the samurai
+     * @return the samurai whose generation depth changed, with the identifiers of their parents
+     */
+    @Query("UNWIND $identifiers AS identifier "
+        + "MATCH (samurai:Samurai {identifier: identifier}) "
+        + "WITH DISTINCT samurai "
+        + "CALL { "
+        + "WITH samurai "
+        + "OPTIONAL MATCH (samurai)-[:PARENT_CHILD]->(child:Samurai) "
+        + "RETURN coalesce(max(coalesce(child.generationDepth, 0)) + 1, 0) AS depth } "
+        + "WITH samurai, depth "
+        + "WHERE samurai.generationDepth IS NULL OR samurai.generationDepth <> depth "
+        + "SET samurai.generationDepth = depth "
+        + "RETURN samurai.identifier AS identifier, "
+        + "[(samurai)<-[:PARENT_CHILD]-(parent:Samurai) | parent.identifier] AS parentIdentifiers")
+    List<SamuraiDepthQueryResult> updateGenerationDepths(List<String> identifiers);
+
+    /**
+     * Bumps the version of the given samurai and the subtree version of the given samurai and all
+     * their ancestors.
+     * <p>
+     * Samurai that do not exist any more are ignored. Stamps that were never set count as
+     * {@code 0}.
+     *
+     * @param identifiers the identifiers of the changed samurai
+     * @return the number of samurai whose subtree version was bumped
+     */
+    @Query("UNWIND $identifiers AS identifier "
+        + "WITH DISTINCT identifier "
+        + "MATCH (samurai:Samurai {identifier: identifier}) "
+        + "SET samurai.version = coalesce(samurai.version, 0) + 1 "
+        + "WITH samurai "
+        + "MATCH (samurai)<-[:PARENT_CHILD*0..]-(ancestor:Samurai) "
+        + "WITH DISTINCT ancestor "
+        + "SET ancestor.subtreeVersion = coalesce(ancestor.subtreeVersion, 0) + 1 "
+        + "RETURN count(ancestor)")
+    Long bumpVersions(List<String> identifiers);
+
+    /**
+     * Finds the identifiers of the parents of a samurai.
+     *
+     * @param identifier the identifier of the samurai
+     * @return the identifiers of the parents
+     */
+    @Query("MATCH (parent:Samurai)-[:PARENT_CHILD]->(:Samurai {identifier: $identifier}) "
+        + "RETURN DISTINCT parent.identifier")
+    List<String> findParentIdentifiersByIdentifier(String identifier);
+
+    /**
+     * Finds every parent-child edge between a samurai and its ancestors up to a maximum number of
+     * generations, in a single upward traversal.
+     * <p>
+     * Cypher does not accept parameters as bounds of a variable-length pattern, so the maximum
+     * depth is written into the query as a literal. Ancestors reached through several lines are
+     * collected once.
+     *
+     * @param identifier the identifier of the samurai
+     * @param maxDepth   the maximum number of generations to go up
+     * @return a flat list of edges with child identifier, parent and relationship type
+     */
+    @Query("MATCH (root:Samurai {identifier: $identifier}) "
+        + "OPTIONAL MATCH (ancestor:Samurai)-[:PARENT_CHILD*1..:#{literal(#maxDepth)}]->(root) "
+        + "WITH root, collect(DISTINCT ancestor) AS ancestors "
+        + "UNWIND ancestors + root AS child "
+        + "MATCH (parent:Samurai)-[r:PARENT_CHILD]->(child) "
+        + "WHERE parent IN ancestors "
+        + "RETURN child.identifier AS childIdentifier, parent AS parent, "
+        + "r.type AS relationshipType")
+    List<SamuraiAncestorEdgeQueryResult> findAncestorEdgesByIdentifier(String identifier,
+        int maxDepth);
+
+    /**
+     * Creates a batch of samurai in a single statement.
+     * <p>
+     * Each row holds its {@code position} in the import, the {@code givenName} and
+     * {@code familyName} used for the uniqueness check, an optional {@code parentIdentifier} and
+     * {@code relationshipType}, and the {@code properties} of the new node. A row is only created
+     * when no samurai with the same name exists and its parent, if any, is found.
+     *
+     * @param rows the rows to import
+     * @return the outcome of every row: {@code CREATED}, {@code CONFLICT} or
+     * {@code PARENT_NOT_FOUND}
+     */
+    @Query("UNWIND $rows AS row "
+        + "OPTIONAL MATCH (existing:Samurai {givenName: row.givenName, familyName: row.familyName}) "
+        + "WITH row, count(existing) > 0 AS conflict "
+        + "OPTIONAL MATCH (parent:Samurai {identifier: row.parentIdentifier}) "
+        + "WITH row, parent, CASE "
+        + "WHEN conflict THEN 'CONFLICT' "
+        + "WHEN row.parentIdentifier IS NOT NULL AND parent IS NULL THEN 'PARENT_NOT_FOUND' "
+        + "ELSE 'CREATED' END AS status "
+        + "FOREACH (ignored IN CASE WHEN status = 'CREATED' THEN [1] ELSE [] END | "
+        + "CREATE (samurai:Samurai) SET samurai = row.properties "
+        + "FOREACH (p IN CASE WHEN parent IS NULL THEN [] ELSE [parent] END | "
+        + "MERGE (p)-[:PARENT_CHILD {type: row.relationshipType}]->(samurai))) "
+        + "RETURN row.position AS position, row.properties.identifier AS identifier, status")
+    List<SamuraiImportQueryResult> importSamurai(List<Map<String, Object>> rows);
+
+    /**
+     * Creates a batch of parent-child relationships in a single statement.
+     * <p>
+     * Each row holds its {@code position} in the batch, a {@code parentIdentifier}, a
+     * {@code childIdentifier} and a {@code relationshipType}. The relationship is only merged when
+     * both samurai exist.
+     *
+     * @param rows the relationships to create
+     * @return for every row, whether the parent and the child were found and the element id of
+     * the relationship if the row created it
+     */
+    @Query("UNWIND $rows AS row "
+        + "OPTIONAL MATCH (parent:Samurai {identifier: row.parentIdentifier}) "
+        + "OPTIONAL MATCH (child:Samurai {identifier: row.childIdentifier}) "
+        + "CALL { "
+        + "WITH row, parent, child "
+        + "WITH row, parent, child WHERE parent IS NOT NULL AND child IS NOT NULL "
+        + "OPTIONAL MATCH (parent)-[existing:PARENT_CHILD {type: row.relationshipType}]->(child) "
+        + "WITH row, parent, child, existing "
+        + "MERGE (parent)-[r:PARENT_CHILD {type: row.relationshipType}]->(child) "
+        + "RETURN collect(CASE WHEN existing IS NULL THEN elementId(r) END) AS created } "
+        + "RETURN row.position AS position, parent IS NOT NULL AS parentFound, "
+        + "child IS NOT NULL AS childFound, created[0] AS relationshipId")
+    List<SamuraiRelationshipQueryResult> createParentChildRelationships(
+        List<Map<String, Object>> rows);
+}
@@ -0,0 +1,412 @@
+package com.fran.spring_boot_neo4j.repositories;
+
+import com.fran.spring_boot_neo4j.graph.GenealogyGraph;
+import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.models.enums.BirthSex;
+import com.fran.spring_boot_neo4j.objects.KinshipPathDTO;
+import com.fran.spring_boot_neo4j.objects.KinshipPathDTO.Direction;
+import com.fran.spring_boot_neo4j.objects.KinshipPathDTO.Step;
+import com.fran.spring_boot_neo4j.objects.OffspringNodeDTO;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.TransactionContext;
+import org.neo4j.driver.TransactionConfig;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.exceptions.Neo4jException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for graph traversals that cannot be expressed as {@link SamuraiRepository} methods.
+ * <p>
+ * It works directly on the Neo4j {@link Driver} so records can be consumed while they are still
+ * being fetched from the result cursor.
+ */
+@Repository
+public class SamuraiTraversalRepository {
+
+    private static final String OFFSPRING_LEVEL_QUERY =
+        "MATCH (parent:Samurai)-[r:PARENT_CHILD]->(offspring:Samurai) "
+            + "WHERE parent.identifier IN $identifiers "
+            + "AND ($relationshipType IS NULL OR r.type = $relationshipType) "
+            + "RETURN parent.identifier AS parentIdentifier, offspring.identifier AS identifier, "
+            + "offspring.givenName AS givenName, offspring.familyName AS familyName, "
+            + "r.type AS relationshipType";
+
+    // The maximum number of hops is a pattern bound, which Cypher does not accept as a parameter
+    private static final String SHORTEST_PATH_QUERY =
+        "MATCH (from:Samurai {identifier: $fromIdentifier}), "
+            + "(to:Samurai {identifier: $toIdentifier}) "
+            + "MATCH path = shortestPath((from)-[:PARENT_CHILD*..%d]-(to)) "
+            + "RETURN [n IN nodes(path) | n {.identifier, .givenName, .familyName}] AS samurai, "
+            + "[r IN relationships(path) | "
+            + "{parentIdentifier: startNode(r).identifier, type: r.type}] AS relationships";
+
+    private static final String GRAPH_SAMURAI_QUERY =
+        "MATCH (s:Samurai) %s"
+            + "RETURN s.identifier AS identifier, s.givenName AS givenName, "
+            + "s.familyName AS familyName, s.nickName AS nickName, s.sex AS sex, "
+            + "s.birthDate AS birthDate, s.deathDate AS deathDate, "
+            + "s.descendantCount AS descendantCount, "
+            + "s.livingDescendantCount AS livingDescendantCount, "
+            + "s.generationDepth AS generationDepth";
+
+    private static final String GRAPH_RELATIONSHIP_QUERY =
+        "MATCH (parent:Samurai)-[r:PARENT_CHILD]->(child:Samurai) %s"
+            + "RETURN DISTINCT parent.identifier AS parentIdentifier, "
+            + "child.identifier AS childIdentifier, r.type AS relationshipType";
+
+    private static final String REBUILD_STATS_QUERY =
+        "MATCH (samurai:Samurai) "
+            + "CALL { "
+            + "WITH samurai "
+            + "OPTIONAL MATCH (samurai)-[:PARENT_CHILD*]->(descendant:Samurai) "
+            + "WITH samurai, collect(DISTINCT descendant) AS descendants "
+            + "SET samurai.descendantCount = size(descendants), "
+            + "samurai.livingDescendantCount = "
+            + "size([d IN descendants WHERE d.deathDate IS NULL]), "
+            + "samurai.version = coalesce(samurai.version, 0) + 1, "
+            + "samurai.subtreeVersion = coalesce(samurai.subtreeVersion, 0) + 1 "
+            + "} IN TRANSACTIONS OF $batchSize ROWS "
+            + "RETURN count(samurai) AS updated";
+
+    private static final String CHILDREN_QUERY =
+        "MATCH (samurai:Samurai) "
+            + "RETURN samurai.identifier AS identifier, "
+            + "[(samurai)-[:PARENT_CHILD]->(child:Samurai) | child.identifier] AS childIdentifiers";
+
+    private static final String WRITE_GENERATION_DEPTHS_QUERY =
+        "UNWIND $rows AS row "
+            + "MATCH (samurai:Samurai {identifier: row.identifier}) "
+            + "SET samurai.generationDepth = row.generationDepth";
+
+    private static final String CHANGED_SAMURAI_FILTER = "WHERE s.identifier IN $identifiers ";
+
+    private static final String CHANGED_RELATIONSHIP_FILTER =
+        "WHERE parent.identifier IN $identifiers OR child.identifier IN $identifiers ";
+
+    private final Driver driver;
+
+    /**
+     * Constructs a new {@code SamuraiTraversalRepository} with the specified driver.
+     *
+     * @param driver the Neo4j driver
+     */
+    public SamuraiTraversalRepository(Driver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * Walks the offspring of a samurai generation by generation and hands every node to the
+     * consumer as soon as its generation has been read.
+     * <p>
+     * One read transaction is run per generation and the consumer is only called after it has
+     * returned, so a slow consumer does not keep a transaction open and a retried transaction
+     * starts over with nothing passed on yet. Only the identifiers of the visited samurai and of
+     * the current generation are kept in memory, which also protects against cyclic
+     * relationships. The root itself is not passed to the consumer.
+     *
+     * @param identifier       the identifier of the root samurai
+     * @param maxDepth         the maximum number of generations below the root
+     * @param relationshipType the only relationship type to follow, or {@code null} for all
+     * @param maxNodes         the maximum number of offspring passed to the consumer
+     * @param consumer         the consumer receiving each offspring node
+     */
+    public void streamOffspring(String identifier, int maxDepth, String relationshipType,
+        int maxNodes, Consumer<OffspringNodeDTO> consumer) {
+        Set<String> visited = new HashSet<>();
+        visited.add(identifier);
+        List<String> generation = List.of(identifier);
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("relationshipType", relationshipType);
+
+        try (Session session = driver.session()) {
+            int depth = 0;
+            // The root counts as visited, so at most maxNodes offspring are passed on
+            while (!generation.isEmpty() && depth < maxDepth && visited.size() <= maxNodes) {
+                int offspringDepth = ++depth;
+                int remaining = maxNodes + 1 - visited.size();
+                parameters.put("identifiers", generation);
+
+                List<OffspringNodeDTO> nodes = session.executeRead(tx -> {
+                    Result result = tx.run(OFFSPRING_LEVEL_QUERY, parameters);
+                    // A retried transaction starts over with a fresh list
+                    Map<String, OffspringNodeDTO> read = new LinkedHashMap<>();
+                    while (result.hasNext() && read.size() < remaining) {
+                        Record record = result.next();
+                        String offspringIdentifier = record.get("identifier").asString();
+
+                        // Avoid cyclic relationships and offspring reachable from several parents
+                        if (!visited.contains(offspringIdentifier)) {
+                            read.putIfAbsent(offspringIdentifier, new OffspringNodeDTO(
+                                offspringIdentifier, record.get("parentIdentifier").asString(),
+                                offspringDepth, record.get("relationshipType").asString(null),
+                                record.get("givenName").asString(null),
+                                record.get("familyName").asString(null)));
+                        }
+                    }
+                    return new ArrayList<>(read.values());
+                });
+
+                List<String> nextGeneration = new ArrayList<>(nodes.size());
+                for (OffspringNodeDTO node : nodes) {
+                    visited.add(node.getIdentifier());
+                    nextGeneration.add(node.getIdentifier());
+                    consumer.accept(node);
+                }
+                generation = nextGeneration;
+            }
+        }
+    }
+
+    /**
+     * Loads every samurai and parent-child relationship into an in-memory projection.
+     * <p>
+     * Both queries run in one read transaction, so the projection is a consistent snapshot.
+     *
+     * @return the projection
+     */
+    public GenealogyGraph loadGenealogyGraph() {
+        try (Session session = driver.session()) {
+            // A retried transaction starts over with a fresh builder
+            return session.executeRead(tx -> {
+                GenealogyGraph.Builder builder = GenealogyGraph.builder();
+                readGenealogy(tx, builder, "", "", Map.of());
+                return builder;
+            }).build();
+        }
+    }
+
+    /**
+     * Reloads the given samurai and all their parent-child relationships into a copy of a
+     * projection. Samurai that no longer exist are left out of the copy.
+     *
+     * @param graph       the current projection
+     * @param identifiers the identifiers of the changed samurai
+     * @return the updated projection
+     */
+    public GenealogyGraph reloadGenealogyGraph(GenealogyGraph graph,
+        Collection<String> identifiers) {
+        try (Session session = driver.session()) {
+            // A retried transaction starts over with a fresh builder
+            return session.executeRead(tx -> {
+                GenealogyGraph.Builder builder = graph.toBuilder(Set.copyOf(identifiers));
+                readGenealogy(tx, builder, CHANGED_SAMURAI_FILTER, CHANGED_RELATIONSHIP_FILTER,
+                    Map.of("identifiers", List.copyOf(identifiers)));
+                return builder;
+            }).build();
+        }
+    }
+
+    /**
+     * Reads samurai and parent-child relationships into a projection builder, record by record.
+     *
+     * @param tx                 the transaction
+     * @param builder            the builder receiving the samurai and relationships
+     * @param samuraiFilter      the {@code WHERE} clause restricting the samurai
+     * @param relationshipFilter the {@code WHERE} clause restricting the relationships
+     * @param parameters         the parameters of both clauses
+     */
+    private static void readGenealogy(TransactionContext tx, GenealogyGraph.Builder builder,
+        String samuraiFilter, String relationshipFilter, Map<String, Object> parameters) {
+        Result samurai = tx.run(String.format(GRAPH_SAMURAI_QUERY, samuraiFilter), parameters);
+        while (samurai.hasNext()) {
+            builder.addSamurai(toSamurai(samurai.next()));
+        }
+
+        Result relationships = tx.run(String.format(GRAPH_RELATIONSHIP_QUERY, relationshipFilter),
+            parameters);
+        while (relationships.hasNext()) {
+            Record record = relationships.next();
+            builder.addRelationship(record.get("parentIdentifier").asString(),
+                record.get("childIdentifier").asString(),
+                record.get("relationshipType").asString(null));
+        }
+    }
+
+    /**
+     * Converts a record of the projection query to a samurai entity.
+     *
+     * @param record the record holding the properties of the samurai
+     * @return the samurai entity
+     */
+    private static Samurai toSamurai(Record record) {
+        Samurai samurai = new Samurai();
+        samurai.setIdentifier(record.get("identifier").asString());
+        samurai.setGivenName(record.get("givenName").asString(null));
+        samurai.setFamilyName(record.get("familyName").asString(null));
+        samurai.setNickName(record.get("nickName").asString(null));
+        String sex = record.get("sex").asString(null);
+        samurai.setSex(sex != null ? BirthSex.valueOf(sex) : null);
+        samurai.setBirthDate(record.get("birthDate").asLocalDate(null));
+        samurai.setDeathDate(record.get("deathDate").asLocalDate(null));
+        samurai.setDescendantCount(asInteger(record.get("descendantCount")));
+        samurai.setLivingDescendantCount(asInteger(record.get("livingDescendantCount")));
+        samurai.setGenerationDepth(asInteger(record.get("generationDepth")));
+        return samurai;
+    }
+
+    private static Integer asInteger(Value value) {
+        return value.isNull() ? null : value.asInt();
+    }
+
+    /**
+     * Recomputes the subtree statistics of every samurai from its current descendants and bumps
+     * its version stamps.
+     * <p>
+     * Each batch of samurai is written in its own transaction, so the counting statement runs
+     * outside of a managed transaction. Generation depths are then derived from the leaves up,
+     * each samurai one more than its deepest child, and written in batches as well.
+     *
+     * @param batchSize the number of samurai per transaction
+     * @return the number of samurai whose statistics were recomputed
+     */
+    public long rebuildSubtreeStats(int batchSize) {
+        try (Session session = driver.session()) {
+            long updated = session.run(REBUILD_STATS_QUERY, Map.of("batchSize", batchSize))
+                .single().get("updated").asLong();
+
+            Map<String, Integer> generationDepths = session.executeRead(tx ->
+                computeGenerationDepths(tx.run(CHILDREN_QUERY)));
+            List<Map<String, Object>> rows = new ArrayList<>(batchSize);
+            for (Map.Entry<String, Integer> entry : generationDepths.entrySet()) {
+                rows.add(Map.of("identifier", entry.getKey(), "generationDepth", entry.getValue()));
+                if (rows.size() == batchSize) {
+                    writeGenerationDepths(session, rows);
+                    rows = new ArrayList<>(batchSize);
+                }
+            }
+            if (!rows.isEmpty()) {
+                writeGenerationDepths(session, rows);
+            }
+            return updated;
+        }
+    }
+
+    /**
+     * Computes the generation depth of every samurai, processing each samurai once all its
+     * children are done. Samurai in a cycle of relationships keep the depth reached so far.
+     *
+     * @param result the identifier and child identifiers of every samurai
+     * @return the generation depths by identifier
+     */
+    private static Map<String, Integer> computeGenerationDepths(Result result) {
+        Map<String, List<String>> parents = new HashMap<>();
+        Map<String, Integer> pendingChildren = new HashMap<>();
+        while (result.hasNext()) {
+            Record record = result.next();
+            String identifier = record.get("identifier").asString();
+            List<String> childIdentifiers = record.get("childIdentifiers").asList(Value::asString);
+            pendingChildren.merge(identifier, childIdentifiers.size(), Integer::sum);
+            for (String childIdentifier : childIdentifiers) {
+                parents.computeIfAbsent(childIdentifier, key -> new ArrayList<>()).add(identifier);
+            }
+        }
+
+        Map<String, Integer> generationDepths = new HashMap<>();
+        Deque<String> done = new ArrayDeque<>();
+        pendingChildren.forEach((identifier, children) -> {
+            generationDepths.put(identifier, 0);
+            if (children == 0) {
+                done.add(identifier);
+            }
+        });
+        while (!done.isEmpty()) {
+            String identifier = done.poll();
+            int parentDepth = generationDepths.get(identifier) + 1;
+            for (String parentIdentifier : parents.getOrDefault(identifier, List.of())) {
+                generationDepths.merge(parentIdentifier, parentDepth, Math::max);
+                if (pendingChildren.merge(parentIdentifier, -1, Integer::sum) == 0) {
+                    done.add(parentIdentifier);
+                }
+            }
+        }
+        return generationDepths;
+    }
+
+    private static void writeGenerationDepths(Session session, List<Map<String, Object>> rows) {
+        session.executeWriteWithoutResult(
+            tx -> tx.run(WRITE_GENERATION_DEPTHS_QUERY, Map.of("rows", rows)).consume());
+    }
+
+    /**
+     * Finds the shortest path of parent-child relationships between two different samurai,
+     * following the relationships in either direction.
+     *
+     * @param fromIdentifier the identifier of the samurai the path starts from
+     * @param toIdentifier   the identifier of the samurai the path ends at
+     * @param maxHops        the maximum number of relationships on the path
+     * @param timeout        the maximum time the search may take
+     * @return an {@link Optional} containing the path, or empty if there is none within the
+     * maximum number of hops
+     * @throws QueryTimeoutException if the search takes longer than the timeout
+     */
+    public Optional<KinshipPathDTO> findShortestPath(String fromIdentifier, String toIdentifier,
+        int maxHops, Duration timeout) {
+        TransactionConfig config = TransactionConfig.builder().withTimeout(timeout).build();
+        try (Session session = driver.session()) {
+            return session.executeRead(tx -> {
+                Result result = tx.run(String.format(SHORTEST_PATH_QUERY, maxHops),
+                    Map.of("fromIdentifier", fromIdentifier, "toIdentifier", toIdentifier));
+                if (!result.hasNext()) {
+                    return Optional.empty();
+                }
+                return Optional.of(toKinshipPath(fromIdentifier, toIdentifier, result.next()));
+            }, config);
+        } catch (Neo4jException e) {
+            if (e.code() != null && e.code().contains("TransactionTimedOut")) {
+                throw new QueryTimeoutException("Kinship search timed out after " + timeout, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Converts the record of a shortest path query to its DTO representation.
+     *
+     * @param fromIdentifier the identifier of the samurai the path starts from
+     * @param toIdentifier   the identifier of the samurai the path ends at
+     * @param record         the record holding the samurai and relationships of the path
+     * @return the path
+     */
+    private static KinshipPathDTO toKinshipPath(String fromIdentifier, String toIdentifier,
+        Record record) {
+        List<Value> samurai = record.get("samurai").asList(value -> value);
+        List<Value> relationships = record.get("relationships").asList(value -> value);
+
+        KinshipPathDTO path = new KinshipPathDTO(fromIdentifier, toIdentifier);
+        for (int i = 0; i < samurai.size(); i++) {
+            Value node = samurai.get(i);
+            Direction direction = null;
+            String relationshipType = null;
+            if (i > 0) {
+                Value relationship = relationships.get(i - 1);
+                String previousIdentifier = samurai.get(i - 1).get("identifier").asString();
+                String parentIdentifier = relationship.get("parentIdentifier").asString();
+                // Going from the parent of the relationship to the child leads down
+                direction = previousIdentifier.equals(parentIdentifier)
+                    ? Direction.DOWN : Direction.UP;
+                relationshipType = relationship.get("type").asString(null);
+            }
+            path.addStep(new Step(node.get("identifier").asString(),
+                node.get("givenName").asString(null), node.get("familyName").asString(null),
+                direction, relationshipType));
+        }
+        return path;
+    }
+}
@@ -0,0 +1,109 @@
+package com.fran.spring_boot_neo4j.requests;
+
+import com.fran.spring_boot_neo4j.models.enums.BirthSex;
+import com.fran.spring_boot_neo4j.models.enums.ClanStatus;
+import com.fran.spring_boot_neo4j.models.enums.SocialStatus;
+
+/**
+ * Request object for listing samurai one page at a time. All filters are optional; year ranges
+ * are inclusive.
+ */
+public class ListSamuraiRequest {
+
+    private String familyName;
+    private SocialStatus socialStatus;
+    private ClanStatus clanStatus;
+    private BirthSex sex;
+    private Integer bornFrom;
+    private Integer bornTo;
+    private Integer diedFrom;
+    private Integer diedTo;
+    private Integer limit;
+    private String cursor;
+
+    /**
+     * Default constructor.
+     */
+    public ListSamuraiRequest() {
+    }
+
+    public String getFamilyName() {
+        return familyName;
+    }
+
+    public void setFamilyName(String familyName) {
+        this.familyName = familyName;
+    }
+
+    public SocialStatus getSocialStatus() {
+        return socialStatus;
+    }
+
+    public void setSocialStatus(SocialStatus socialStatus) {
+        this.socialStatus = socialStatus;
+    }
+
+    public ClanStatus getClanStatus() {
+        return clanStatus;
+    }
+
+    public void setClanStatus(ClanStatus clanStatus) {
+        this.clanStatus = clanStatus;
+    }
+
+    public BirthSex getSex() {
+        return sex;
+    }
+
+    public void setSex(BirthSex sex) {
+        this.sex = sex;
+    }
+
+    public Integer getBornFrom() {
+        return bornFrom;
+    }
+
+    public void setBornFrom(Integer bornFrom) {
+        this.bornFrom = bornFrom;
+    }
+
+    public Integer getBornTo() {
+        return bornTo;
+    }
+
+    public void setBornTo(Integer bornTo) {
+        this.bornTo = bornTo;
+    }
+
+    public Integer getDiedFrom() {
+        return diedFrom;
+    }
+
+    public void setDiedFrom(Integer diedFrom) {
+        this.diedFrom = diedFrom;
+    }
+
+    public Integer getDiedTo() {
+        return diedTo;
+    }
+
+    public void setDiedTo(Integer diedTo) {
+        this.diedTo = diedTo;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+}
@@ -0,0 +1,42 @@
+package com.fran.spring_boot_neo4j.requests;
+
+/**
+ * Request object for the bounds of an offspring tree. All bounds are optional and fall back to the
+ * configured limits.
+ */
+public class OffspringTreeRequest {
+
+    private Integer maxDepth;
+    private Integer maxNodes;
+    private String relationshipType;
+
+    /**
+     * Default constructor.
+     */
+    public OffspringTreeRequest() {
+    }
+
+    public Integer getMaxDepth() {
+        return maxDepth;
+    }
+
+    public void setMaxDepth(Integer maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    public Integer getMaxNodes() {
+        return maxNodes;
+    }
+
+    public void setMaxNodes(Integer maxNodes) {
+        this.maxNodes = maxNodes;
+    }
+
+    public String getRelationshipType() {
+        return relationshipType;
+    }
+
+    public void setRelationshipType(String relationshipType) {
+        this.relationshipType = relationshipType;
+    }
+}
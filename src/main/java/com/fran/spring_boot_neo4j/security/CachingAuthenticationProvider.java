@@ -0,0 +1,158 @@
+package com.fran.spring_boot_neo4j.security;
+
+import com.fran.spring_boot_neo4j.bulkhead.Bulkhead;
+import com.fran.spring_boot_neo4j.bulkhead.BulkheadFullException;
+import com.fran.spring_boot_neo4j.services.NeoUserDetailsService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authentication provider that remembers successful HTTP Basic authentications for a short time.
+ * <p>
+ * Since the API is stateless, every authenticated request would otherwise load the user from Neo4j
+ * and run a full BCrypt verification. Successful authentications are cached by username and an
+ * HMAC of the presented password, computed with a random key that never leaves the process, so
+ * the cache does not hold anything that could be used to recover the password. Failed attempts
+ * are never cached and always go through the full verification, which runs inside the
+ * authentication {@link Bulkhead}.
+ */
+@Component
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final DaoAuthenticationProvider delegate;
+    private final Cache<CredentialKey, UserDetails> cache;
+    private final SecretKeySpec hmacKey;
+    private final Bulkhead authBulkhead;
+
+    /**
+     * Constructs a new {@code CachingAuthenticationProvider}.
+     *
+     * @param neoUserDetailsService the service to load users from the database
+     * @param passwordEncoder       the password encoder used to verify passwords
+     * @param maximumSize           the maximum number of cached authentications
+     * @param expireAfterWrite      the time after which a cached authentication is verified again
+     * @param authBulkhead          the bulkhead limiting concurrent verifications
+     */
+    public CachingAuthenticationProvider(NeoUserDetailsService neoUserDetailsService,
+        PasswordEncoder passwordEncoder,
+        @Value("${app.cache.authentication.maximum-size:10000}") long maximumSize,
+        @Value("${app.cache.authentication.expire-after-write:60s}") Duration expireAfterWrite,
+        @Qualifier("authBulkhead") Bulkhead authBulkhead) {
+        this.delegate = new DaoAuthenticationProvider(passwordEncoder);
+        this.delegate.setUserDetailsService(neoUserDetailsService);
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .build();
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.hmacKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+        this.authBulkhead = authBulkhead;
+    }
+
+    /**
+     * Authenticates the request from the cache, or verifies it against the database and caches
+     * the result when the credentials are valid.
+     *
+     * @param authentication the authentication request
+     * @return a fully authenticated object including the granted authorities
+     * @throws AuthenticationException if the credentials are invalid
+     * @throws BulkheadFullException   if too many verifications are already running
+     */
+    @Override
+    public Authentication authenticate(Authentication authentication)
+        throws AuthenticationException {
+        if (authentication.getName() == null || authentication.getCredentials() == null) {
+            return authBulkhead.execute(() -> delegate.authenticate(authentication));
+        }
+
+        CredentialKey key = new CredentialKey(authentication.getName(),
+            hmac(authentication.getName(), authentication.getCredentials().toString()));
+
+        UserDetails cachedUser = cache.getIfPresent(key);
+        if (cachedUser != null) {
+            UsernamePasswordAuthenticationToken result =
+                UsernamePasswordAuthenticationToken.authenticated(cachedUser, null,
+                    cachedUser.getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+
+        Authentication result = authBulkhead.execute(() -> delegate.authenticate(authentication));
+        if (result.getPrincipal() instanceof UserDetails userDetails) {
+            cache.put(key, userDetails);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    /**
+     * Removes all cached authentications of a user. Must be called whenever the user is created,
+     * updated or deleted.
+     *
+     * @param username the username of the user
+     */
+    public void invalidate(String username) {
+        cache.asMap().keySet().removeIf(key -> key.username().equals(username));
+    }
+
+    /**
+     * Computes the keyed hash of the presented credentials.
+     *
+     * @param username the presented username
+     * @param password the presented password
+     * @return the HMAC of the username and password
+     */
+    private byte[] hmac(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(hmacKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC not available", e);
+        }
+    }
+
+    /**
+     * Cache key made of the username and the keyed hash of the presented password.
+     */
+    private record CredentialKey(String username, byte[] credentialHash) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CredentialKey other && username.equals(other.username)
+                && Arrays.equals(credentialHash, other.credentialHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * username.hashCode() + Arrays.hashCode(credentialHash);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.fran.spring_boot_neo4j.services;
+
+import com.fran.spring_boot_neo4j.cache.KinshipCache;
+import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.objects.KinshipPathDTO;
+import com.fran.spring_boot_neo4j.objects.KinshipPathDTO.Step;
+import com.fran.spring_boot_neo4j.repositories.SamuraiTraversalRepository;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Service class for finding how two samurai are related.
+ */
+@Service
+public class KinshipService {
+
+    // See application.properties
+    @Value("${app.samurai.kinship.max-hops:30}")
+    private int maxHops = 30;
+
+    @Value("${app.samurai.kinship.timeout:5s}")
+    private Duration timeout = Duration.ofSeconds(5);
+
+    private final SamuraiService samuraiService;
+    private final SamuraiTraversalRepository samuraiTraversalRepository;
+    private final KinshipCache kinshipCache;
+
+    /**
+     * Constructs a new {@code KinshipService}.
+     *
+     * @param samuraiService             the service to look up the samurai
+     * @param samuraiTraversalRepository the repository for the shortest path search
+     * @param kinshipCache               the cache of paths by pair of samurai
+     */
+    public KinshipService(SamuraiService samuraiService,
+        SamuraiTraversalRepository samuraiTraversalRepository, KinshipCache kinshipCache) {
+        this.samuraiService = samuraiService;
+        this.samuraiTraversalRepository = samuraiTraversalRepository;
+        this.kinshipCache = kinshipCache;
+    }
+
+    /**
+     * Retrieves the shortest path of parent-child relationships between two samurai, served from
+     * the {@link KinshipCache} when possible.
+     *
+     * @param fromIdentifier the identifier of the samurai the path starts from
+     * @param toIdentifier   the identifier of the samurai the path ends at
+     * @return the path
+     * @throws ResponseStatusException if a samurai is not found, if there is no path within the
+     *                                 maximum number of hops or if the search times out
+     */
+    public KinshipPathDTO getKinshipPath(String fromIdentifier, String toIdentifier) {
+        Samurai from = samuraiService.getSamuraiByIdentifier(fromIdentifier);
+        samuraiService.getSamuraiByIdentifier(toIdentifier);
+
+        if (fromIdentifier.equals(toIdentifier)) {
+            KinshipPathDTO path = new KinshipPathDTO(fromIdentifier, toIdentifier);
+            path.addStep(new Step(from.getIdentifier(), from.getGivenName(),
+                from.getFamilyName(), null, null));
+            return path;
+        }
+
+        try {
+            return kinshipCache.get(fromIdentifier, toIdentifier,
+                    () -> samuraiTraversalRepository.findShortestPath(fromIdentifier,
+                        toIdentifier, maxHops, timeout))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "No kinship found within " + maxHops + " relationships"));
+        } catch (QueryTimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                "Kinship search timed out", e);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.fran.spring_boot_neo4j.services;
+
+import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiTreeEdgeQueryResult;
+import com.fran.spring_boot_neo4j.repositories.SamuraiRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the parent-child edges of an offspring tree from Neo4j one generation at a time.
+ * <p>
+ * Every generation is fetched with a single {@code IN $parentIdentifiers} query for the whole
+ * frontier, so each edge is read once however many paths lead to it. Frontiers larger than
+ * {@code app.samurai.tree.frontier-chunk-size} are split into chunks; all but the first are run
+ * on a shared pool of {@code app.samurai.tree.frontier-parallelism} threads while the calling
+ * thread runs the first. The pool is shared by all requests, so it bounds the extra
+ * connections taken from the driver's pool; queries run on it are not counted by
+ * {@code RepositoryQueryCounter}. The visited samurai are only tracked by the calling thread.
+ */
+@Component
+public class OffspringTreeLoader implements DisposableBean {
+
+    private final SamuraiRepository samuraiRepository;
+    private final int chunkSize;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a new {@code OffspringTreeLoader}.
+     *
+     * @param samuraiRepository the repository running the frontier queries
+     * @param chunkSize         the maximum number of parents per frontier query
+     * @param parallelism       the number of frontier queries run in parallel across all
+     *                          requests, {@code 1} to run them one after another on the calling
+     *                          thread
+     */
+    public OffspringTreeLoader(SamuraiRepository samuraiRepository,
+        @Value("${app.samurai.tree.frontier-chunk-size:1000}") int chunkSize,
+        @Value("${app.samurai.tree.frontier-parallelism:4}") int parallelism) {
+        this.samuraiRepository = samuraiRepository;
+        this.chunkSize = chunkSize;
+        this.executor = parallelism > 1
+            ? Executors.newFixedThreadPool(parallelism, frontierThreadFactory()) : null;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Finds the parent-child edges of a samurai tree bounded in depth, size and relationship
+     * type.
+     * <p>
+     * The rows are the ones {@code SamuraiRepository} used to return for a whole tree: the root
+     * first, without a parent, then the samurai ordered by their smallest depth and identifier,
+     * each with every edge reaching it from a samurai of the tree. A size bound cuts the deepest
+     * generations first.
+     *
+     * @param root             the root samurai
+     * @param maxDepth         the maximum number of generations below the root
+     * @param relationshipType the only relationship type to follow, or {@code null} for all
+     * @param limit            the maximum number of samurai, including the root
+     * @return a flat list of edges with parent identifier, offspring, relationship type, depth and
+     * the identifiers of the offspring's own offspring
+     */
+    public List<SamuraiTreeEdgeQueryResult> findOffspringTreeEdges(Samurai root, int maxDepth,
+        String relationshipType, int limit) {
+        // Samurai of the tree in the order they are returned, with their depth and edges
+        Map<String, Integer> depths = new HashMap<>();
+        List<Samurai> samurai = new ArrayList<>();
+        Map<String, List<SamuraiTreeEdgeQueryResult>> edgesByOffspring = new HashMap<>();
+        LinkedHashSet<String> rootOffspring = new LinkedHashSet<>();
+        depths.put(root.getIdentifier(), 0);
+        samurai.add(root);
+
+        List<String> frontier = List.of(root.getIdentifier());
+        for (int depth = 1; depth <= maxDepth && !frontier.isEmpty(); depth++) {
+            // Once the size bound is reached, the frontier is still read for edges between
+            // samurai of the tree, but no new samurai are added
+            boolean full = samurai.size() >= limit;
+            TreeMap<String, Samurai> discovered = new TreeMap<>();
+            for (SamuraiTreeEdgeQueryResult edge : fetchFrontier(frontier, relationshipType)) {
+                String identifier = edge.getOffspring().getIdentifier();
+                if (edge.getParentIdentifier().equals(root.getIdentifier())) {
+                    rootOffspring.add(identifier);
+                }
+                if (!depths.containsKey(identifier)) {
+                    if (full) {
+                        continue;
+                    }
+                    discovered.putIfAbsent(identifier, edge.getOffspring());
+                }
+                edgesByOffspring.computeIfAbsent(identifier, key -> new ArrayList<>()).add(edge);
+            }
+            if (full) {
+                break;
+            }
+
+            List<String> next = new ArrayList<>();
+            for (Samurai offspring : discovered.values()) {
+                if (samurai.size() == limit) {
+                    edgesByOffspring.remove(offspring.getIdentifier());
+                    continue;
+                }
+                depths.put(offspring.getIdentifier(), depth);
+                samurai.add(offspring);
+                next.add(offspring.getIdentifier());
+            }
+            frontier = next;
+        }
+
+        List<SamuraiTreeEdgeQueryResult> edges = new ArrayList<>();
+        SamuraiTreeEdgeQueryResult rootEdge = new SamuraiTreeEdgeQueryResult();
+        rootEdge.setOffspring(root);
+        rootEdge.setDepth(0L);
+        rootEdge.setOffspringIdentifiers(new ArrayList<>(rootOffspring));
+        edges.add(rootEdge);
+        for (Samurai offspring : samurai) {
+            for (SamuraiTreeEdgeQueryResult edge :
+                edgesByOffspring.getOrDefault(offspring.getIdentifier(), List.of())) {
+                edge.setDepth((long) depths.get(offspring.getIdentifier()));
+                edges.add(edge);
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Fetches the edges leaving a frontier, splitting it into chunks run in parallel when it is
+     * large.
+     *
+     * @param frontier         the identifiers of the parents
+     * @param relationshipType the only relationship type to follow, or {@code null} for all
+     * @return the edges in the order of the chunks
+     */
+    private List<SamuraiTreeEdgeQueryResult> fetchFrontier(List<String> frontier,
+        String relationshipType) {
+        if (frontier.size() <= chunkSize || executor == null) {
+            List<SamuraiTreeEdgeQueryResult> edges = new ArrayList<>();
+            for (int from = 0; from < frontier.size(); from += chunkSize) {
+                edges.addAll(samuraiRepository.findOffspringEdgesByParentIdentifiers(
+                    frontier.subList(from, Math.min(from + chunkSize, frontier.size())),
+                    relationshipType));
+            }
+            return edges;
+        }
+
+        List<CompletableFuture<List<SamuraiTreeEdgeQueryResult>>> chunks = new ArrayList<>();
+        for (int from = chunkSize; from < frontier.size(); from += chunkSize) {
+            List<String> chunk = frontier.subList(from, Math.min(from + chunkSize,
+                frontier.size()));
+            chunks.add(CompletableFuture.supplyAsync(() ->
+                samuraiRepository.findOffspringEdgesByParentIdentifiers(chunk, relationshipType),
+                executor));
+        }
+        List<SamuraiTreeEdgeQueryResult> edges = new ArrayList<>(
+            samuraiRepository.findOffspringEdgesByParentIdentifiers(
+                frontier.subList(0, chunkSize), relationshipType));
+        for (CompletableFuture<List<SamuraiTreeEdgeQueryResult>> chunk : chunks) {
+            try {
+                edges.addAll(chunk.join());
+            } catch (CompletionException e) {
+                // Rethrow what the query threw, so it is handled like a query on this thread
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        return edges;
+    }
+
+    private static ThreadFactory frontierThreadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "tree-frontier-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.fran.spring_boot_neo4j.services;
+
+import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.objects.OffspringNodeDTO;
+import com.fran.spring_boot_neo4j.repositories.ReactiveSamuraiRepository;
+import com.fran.spring_boot_neo4j.requests.OffspringTreeRequest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link SamuraiService} for read operations.
+ * <p>
+ * No thread is held while a query is running; results are emitted as the driver delivers them
+ * and only as fast as the subscriber requests them.
+ */
+@Service
+public class ReactiveSamuraiService {
+
+    // See application.properties
+    @Value("${app.samurai.tree.max-depth:100}")
+    private int maxTreeDepth = 100;
+
+    @Value("${app.samurai.tree.max-nodes:10000}")
+    private int maxTreeNodes = 10000;
+
+    private final ReactiveSamuraiRepository reactiveSamuraiRepository;
+
+    /**
+     * Constructs a new {@code ReactiveSamuraiService} with the specified repository.
+     *
+     * @param reactiveSamuraiRepository the reactive samurai repository
+     */
+    public ReactiveSamuraiService(ReactiveSamuraiRepository reactiveSamuraiRepository) {
+        this.reactiveSamuraiRepository = reactiveSamuraiRepository;
+    }
+
+    /**
+     * Retrieves a samurai by its identifier.
+     *
+     * @param identifier the identifier of the samurai
+     * @return a {@link Mono} emitting the samurai, or failing with 404 if it does not exist
+     */
+    public Mono<Samurai> getSamuraiByIdentifier(String identifier) {
+        return reactiveSamuraiRepository.findSamuraiByIdentifier(identifier)
+            .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                "Samurai not found with identifier: " + identifier)));
+    }
+
+    /**
+     * Streams the offspring of a samurai generation by generation, bounded in depth, size and
+     * relationship type like {@link SamuraiService#getSamuraiTree(String, OffspringTreeRequest)}.
+     * <p>
+     * Nodes of a generation are emitted while its query is still running; the next generation is
+     * only queried once the current one has completed. Samurai reached twice are skipped, which
+     * also protects against cyclic relationships. The root itself is not emitted. Once the size
+     * bound is reached, the running query is cancelled.
+     *
+     * @param identifier the identifier of the root samurai
+     * @param request    the bounds of the tree
+     * @return a {@link Flux} of offspring nodes, failing with 404 if the root does not exist and
+     * with 400 if a bound or the relationship type is invalid
+     */
+    public Flux<OffspringNodeDTO> streamSamuraiTree(String identifier,
+        OffspringTreeRequest request) {
+        return Mono.fromCallable(() -> new TreeBounds(
+                SamuraiService.resolveTreeBound(request.getMaxDepth(), maxTreeDepth, "Max depth"),
+                SamuraiService.resolveTreeBound(request.getMaxNodes(), maxTreeNodes, "Max nodes"),
+                SamuraiService.resolveTreeRelationshipType(request)))
+            .flatMapMany(bounds -> getSamuraiByIdentifier(identifier).flatMapMany(root -> {
+                Set<String> visited = new HashSet<>();
+                visited.add(root.getIdentifier());
+                return streamGeneration(List.of(root.getIdentifier()), 1, bounds,
+                    bounds.maxNodes(), visited);
+            }));
+    }
+
+    private Flux<OffspringNodeDTO> streamGeneration(List<String> parentIdentifiers, int depth,
+        TreeBounds bounds, int remainingNodes, Set<String> visited) {
+        if (parentIdentifiers.isEmpty() || depth > bounds.maxDepth() || remainingNodes < 1) {
+            return Flux.empty();
+        }
+
+        // Signals of a Flux are serialized, so plain collections are safe here
+        List<String> nextGeneration = new ArrayList<>();
+        return reactiveSamuraiRepository.findOffspringEdgesByParentIdentifiers(parentIdentifiers,
+                bounds.relationshipType())
+            .filter(edge -> visited.add(edge.getOffspring().getIdentifier()))
+            .take(remainingNodes)
+            .map(edge -> {
+                Samurai offspring = edge.getOffspring();
+                nextGeneration.add(offspring.getIdentifier());
+                return new OffspringNodeDTO(offspring.getIdentifier(), edge.getParentIdentifier(),
+                    depth, edge.getRelationshipType(), offspring.getGivenName(),
+                    offspring.getFamilyName());
+            })
+            .concatWith(Flux.defer(() -> streamGeneration(nextGeneration, depth + 1, bounds,
+                remainingNodes - nextGeneration.size(), visited)));
+    }
+
+    /**
+     * Resolved bounds of a streamed offspring tree.
+     *
+     * @param maxDepth         the maximum number of generations below the root
+     * @param maxNodes         the maximum number of offspring
+     * @param relationshipType the only relationship type to follow, or {@code null} for all
+     */
+    private record TreeBounds(int maxDepth, int maxNodes, String relationshipType) {
+    }
+}
@@ -0,0 +1,185 @@
+package com.fran.spring_boot_neo4j.services;
+
+import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.repositories.SamuraiRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads samurai by identifier, combining the lookups of concurrent requests into one query.
+ * <p>
+ * The first lookup of a batch waits up to {@code app.samurai.lookup.batch-window} for others to
+ * join, then reads the whole batch with a single {@code IN $identifiers} query on its own
+ * thread. A lookup that fills the batch up to {@code app.samurai.lookup.max-batch-size} sends it
+ * right away, and the first lookup stops waiting. Every lookup thus trades up to one window of
+ * latency for fewer round trips; a zero window turns batching off. A failed query fails every
+ * lookup of its batch. The query is counted by {@code RepositoryQueryCounter} for the request
+ * that sent it only.
+ * <p>
+ * The number of identifiers per query is published as {@code samurai.lookup.batch.size} and the
+ * time a lookup takes, including the wait, as {@code samurai.lookup.latency}.
+ */
+@Component
+public class SamuraiBatchLoader {
+
+    private final SamuraiRepository samuraiRepository;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSize;
+    private final Timer latency;
+
+    // Batch still accepting lookups, guarded by this
+    private Batch pending;
+
+    /**
+     * Constructs a new {@code SamuraiBatchLoader}.
+     *
+     * @param samuraiRepository the repository running the lookup queries
+     * @param window            the time the first lookup of a batch waits for others, zero to
+     *                          look up every samurai on its own
+     * @param maxBatchSize      the maximum number of identifiers per query
+     * @param meterRegistry     the registry to publish the batch size and latency metrics to
+     */
+    public SamuraiBatchLoader(SamuraiRepository samuraiRepository,
+        @Value("${app.samurai.lookup.batch-window:0}") Duration window,
+        @Value("${app.samurai.lookup.max-batch-size:100}") int maxBatchSize,
+        MeterRegistry meterRegistry) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        this.samuraiRepository = samuraiRepository;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSize = DistributionSummary.builder("samurai.lookup.batch.size")
+            .description("Number of identifiers per samurai lookup query")
+            .baseUnit("identifiers")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.latency = Timer.builder("samurai.lookup.latency")
+            .description("Time a samurai lookup takes, including the wait for its batch")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    /**
+     * Finds a samurai by its identifier.
+     *
+     * @param identifier the identifier of the samurai
+     * @return an {@link Optional} containing the found samurai, or empty if no samurai found
+     */
+    public Optional<Samurai> findSamuraiByIdentifier(String identifier) {
+        long start = System.nanoTime();
+        try {
+            if (window.isZero()) {
+                batchSize.record(1);
+                return samuraiRepository.findSamuraiByIdentifier(identifier);
+            }
+            return join(identifier);
+        } finally {
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Optional<Samurai> join(String identifier) {
+        Batch batch;
+        CompletableFuture<Optional<Samurai>> result;
+        boolean first;
+        boolean full;
+        synchronized (this) {
+            first = pending == null;
+            if (first) {
+                pending = new Batch();
+            }
+            batch = pending;
+            result = batch.lookups.computeIfAbsent(identifier, key -> new CompletableFuture<>());
+            full = batch.lookups.size() >= maxBatchSize;
+            if (full) {
+                pending = null;
+                batch.closed.countDown();
+            }
+        }
+
+        if (full) {
+            send(batch);
+        } else if (first) {
+            try {
+                batch.closed.await(window.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                // Send the batch right away, the other lookups are waiting for it
+                Thread.currentThread().interrupt();
+            }
+            if (close(batch)) {
+                send(batch);
+            }
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            // Rethrow what the query threw, so it is handled like a query on this thread
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Stops the batch from accepting lookups, false if a lookup filling it has already sent it
+    private synchronized boolean close(Batch batch) {
+        if (pending != batch) {
+            return false;
+        }
+        pending = null;
+        return true;
+    }
+
+    private void send(Batch batch) {
+        Map<String, Samurai> found = new HashMap<>();
+        Throwable failure = null;
+        try {
+            batchSize.record(batch.lookups.size());
+            List<Samurai> samurai = samuraiRepository.findAllByIdentifierIn(batch.lookups.keySet());
+            samurai.forEach(s -> found.put(s.getIdentifier(), s));
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            // Whatever happened, no lookup of the batch may be left waiting
+            for (Map.Entry<String, CompletableFuture<Optional<Samurai>>> lookup :
+                batch.lookups.entrySet()) {
+                if (failure != null) {
+                    lookup.getValue().completeExceptionally(failure);
+                } else {
+                    lookup.getValue().complete(Optional.ofNullable(found.get(lookup.getKey())));
+                }
+            }
+        }
+    }
+
+    /**
+     * Lookups collected for one query, by identifier. Only modified while the batch is pending.
+     */
+    private static final class Batch {
+
+        private final Map<String, CompletableFuture<Optional<Samurai>>> lookups =
+            new LinkedHashMap<>();
+
+        // Released once a lookup fills the batch, so the first lookup stops waiting
+        private final CountDownLatch closed = new CountDownLatch(1);
+    }
+}
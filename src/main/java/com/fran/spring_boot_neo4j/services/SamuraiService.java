@@ -1,23 +1,70 @@
 package com.fran.spring_boot_neo4j.services;
 
+import com.fran.spring_boot_neo4j.cache.SamuraiCache;
+import com.fran.spring_boot_neo4j.events.GenealogyChangedEvent;
+import com.fran.spring_boot_neo4j.graph.GenealogyGraph;
+import com.fran.spring_boot_neo4j.graph.GenealogyGraphProjection;
 import com.fran.spring_boot_neo4j.models.Samurai;
 import com.fran.spring_boot_neo4j.models.enums.ParentChildRelationshipType;
 import com.fran.spring_boot_neo4j.models.enums.SocialStatus;
+import com.fran.spring_boot_neo4j.objects.AncestorDTO;
+import com.fran.spring_boot_neo4j.objects.BatchRelationshipResponseDTO;
+import com.fran.spring_boot_neo4j.objects.BulkImportResponseDTO;
+import com.fran.spring_boot_neo4j.objects.BulkImportResultDTO;
+import com.fran.spring_boot_neo4j.objects.BulkImportResultDTO.Status;
+import com.fran.spring_boot_neo4j.objects.CacheStatsDTO;
+import com.fran.spring_boot_neo4j.objects.FlatSamuraiTreeDTO;
+import com.fran.spring_boot_neo4j.objects.OffspringNodeDTO;
 import com.fran.spring_boot_neo4j.objects.SamuraiDTO;
-import com.fran.spring_boot_neo4j.queryresults.SamuraiOffspringQueryResult;
+import com.fran.spring_boot_neo4j.objects.SamuraiMultiGetDTO;
+import com.fran.spring_boot_neo4j.objects.SamuraiPageDTO;
+import com.fran.spring_boot_neo4j.objects.SubtreeStatsDTO;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiAncestorEdgeQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiCreateQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiDepthQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiEdgeQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiImportQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiRelationshipQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiTreeEdgeQueryResult;
 import com.fran.spring_boot_neo4j.repositories.SamuraiRepository;
+import com.fran.spring_boot_neo4j.repositories.SamuraiTraversalRepository;
 import com.fran.spring_boot_neo4j.requests.AddRelationshipRequest;
 import com.fran.spring_boot_neo4j.requests.CreateSamuraiRequest;
+import com.fran.spring_boot_neo4j.requests.ListSamuraiRequest;
+import com.fran.spring_boot_neo4j.requests.OffspringTreeRequest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  * Service class for managing {@link Samurai} entities.
@@ -26,91 +73,512 @@ import org.springframework.web.server.ResponseStatusException;
 public class SamuraiService {
 
     private static final Logger logger = LoggerFactory.getLogger(SamuraiService.class);
+
+    private static final String OFFSPRING_TREE_PATH = "/api/v1/samurai/offspring/{identifier}";
+
+    // See application.properties
+    @Value("${app.samurai.import.batch-size:1000}")
+    private int importBatchSize = 1000;
+
+    @Value("${app.samurai.relationship.batch-size:1000}")
+    private int relationshipBatchSize = 1000;
+
+    @Value("${app.samurai.stats.rebuild-batch-size:1000}")
+    private int statsRebuildBatchSize = 1000;
+
+    @Value("${app.samurai.ancestors.max-depth:20}")
+    private int maxAncestorDepth = 20;
+
+    @Value("${app.samurai.tree.max-depth:100}")
+    private int maxTreeDepth = 100;
+
+    @Value("${app.samurai.tree.max-nodes:10000}")
+    private int maxTreeNodes = 10000;
+
+    @Value("${app.samurai.lookup.max-identifiers:500}")
+    private int maxLookupIdentifiers = 500;
+
+    @Value("${app.samurai.list.default-limit:50}")
+    private int defaultPageLimit = 50;
+
+    @Value("${app.samurai.list.max-limit:500}")
+    private int maxPageLimit = 500;
+
     private final SamuraiRepository samuraiRepository;
+    private final SamuraiTraversalRepository samuraiTraversalRepository;
+    private final SamuraiCache samuraiCache;
+    private final SamuraiBatchLoader samuraiBatchLoader;
+    private final GenealogyGraphProjection genealogyGraphProjection;
+    private final OffspringTreeLoader offspringTreeLoader;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DistributionSummary treeNodeCount;
+    private final DistributionSummary treeDepth;
 
     /**
-     * Constructs a new {@code SamuraiService} with the specified repository.
+     * Constructs a new {@code SamuraiService} with the specified repositories and caches.
      *
-     * @param samuraiRepository the repository for accessing samurai data
+     * @param samuraiRepository          the repository for accessing samurai data
+     * @param samuraiTraversalRepository the repository for streaming graph traversals
+     * @param samuraiCache               the cache of samurai entities by identifier
+     * @param samuraiBatchLoader         the loader combining concurrent lookups by identifier
+     * @param genealogyGraphProjection   the in-memory genealogy graph serving tree traversals
+     * @param offspringTreeLoader        the loader of offspring trees from the database
+     * @param eventPublisher             the publisher of {@link GenealogyChangedEvent}s
+     * @param meterRegistry              the registry to publish the tree size metrics to
      */
-    public SamuraiService(SamuraiRepository samuraiRepository) {
+    public SamuraiService(SamuraiRepository samuraiRepository,
+        SamuraiTraversalRepository samuraiTraversalRepository, SamuraiCache samuraiCache,
+        SamuraiBatchLoader samuraiBatchLoader, GenealogyGraphProjection genealogyGraphProjection,
+        OffspringTreeLoader offspringTreeLoader, ApplicationEventPublisher eventPublisher,
+        MeterRegistry meterRegistry) {
         this.samuraiRepository = samuraiRepository;
+        this.samuraiTraversalRepository = samuraiTraversalRepository;
+        this.samuraiCache = samuraiCache;
+        this.samuraiBatchLoader = samuraiBatchLoader;
+        this.genealogyGraphProjection = genealogyGraphProjection;
+        this.offspringTreeLoader = offspringTreeLoader;
+        this.eventPublisher = eventPublisher;
+        this.treeNodeCount = DistributionSummary.builder("samurai.tree.nodes")
+            .description("Number of samurai in the trees built by getSamuraiTree")
+            .baseUnit("nodes")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.treeDepth = DistributionSummary.builder("samurai.tree.depth")
+            .description("Number of generations below the root of the trees built by "
+                + "getSamuraiTree")
+            .baseUnit("generations")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
     }
 
     /**
-     * Retrieves a samurai by its identifier.
+     * Retrieves a samurai by its identifier, served from the {@link SamuraiCache} when possible.
+     * Cache misses are looked up through the {@link SamuraiBatchLoader}.
      *
      * @param identifier the identifier of the samurai
      * @return the samurai with the specified identifier
      * @throws ResponseStatusException if the samurai is not found
      */
     public Samurai getSamuraiByIdentifier(String identifier) {
-        return samuraiRepository.findSamuraiByIdentifier(identifier)
+        return samuraiCache.get(identifier, samuraiBatchLoader::findSamuraiByIdentifier)
             .orElseThrow(() -> new ResponseStatusException(
                 HttpStatus.NOT_FOUND, "Samurai not found"));
     }
 
     /**
-     * Creates a new samurai.
+     * Retrieves the samurai with the given identifiers. Samurai in the {@link SamuraiCache} are
+     * served from it, and all others are read with a single query on the identifier index.
+     *
+     * @param identifiers the identifiers of the samurai
+     * @return the found samurai in the order of their first occurrence in {@code identifiers},
+     * and the identifiers that did not match any samurai
+     * @throws ResponseStatusException if no or too many identifiers are given
+     */
+    public SamuraiMultiGetDTO getSamuraiByIdentifiers(List<String> identifiers) {
+        Set<String> distinct = new LinkedHashSet<>(identifiers);
+        if (distinct.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Identifiers must not be null");
+        }
+        if (distinct.isEmpty() || distinct.size() > maxLookupIdentifiers) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Between 1 and " + maxLookupIdentifiers + " identifiers must be given");
+        }
+
+        Map<String, Samurai> found =
+            samuraiCache.getAll(distinct, samuraiRepository::findAllByIdentifierIn);
+        List<SamuraiDTO> items = new ArrayList<>(found.size());
+        List<String> missingIdentifiers = new ArrayList<>();
+        for (String identifier : distinct) {
+            Samurai samurai = found.get(identifier);
+            if (samurai != null) {
+                items.add(convertToDTO(samurai));
+            } else {
+                missingIdentifiers.add(identifier);
+            }
+        }
+        return new SamuraiMultiGetDTO(items, missingIdentifiers);
+    }
+
+    /**
+     * Returns the statistics of the samurai entity cache.
+     *
+     * @return the hit, miss and eviction statistics of the cache
+     */
+    public CacheStatsDTO getCacheStats() {
+        return new CacheStatsDTO(samuraiCache.estimatedSize(), samuraiCache.stats());
+    }
+
+    /**
+     * Retrieves the subtree statistics of a samurai, as maintained on every write.
+     *
+     * @param identifier the identifier of the samurai
+     * @return the descendant counts and the generation depth of the samurai
+     * @throws ResponseStatusException if the samurai is not found
+     */
+    public SubtreeStatsDTO getSubtreeStats(String identifier) {
+        return new SubtreeStatsDTO(getSamuraiByIdentifier(identifier));
+    }
+
+    /**
+     * Returns the entity tag of a samurai, which changes whenever the samurai itself changes.
+     *
+     * @param samurai the samurai
+     * @return the unquoted entity tag
+     */
+    public String getSamuraiETag(Samurai samurai) {
+        return samurai.getIdentifier() + "-" + stampOf(samurai.getVersion());
+    }
+
+    /**
+     * Returns the entity tag of a samurai tree, which changes whenever the root or any of its
+     * descendants changes, or when the tree is requested with other bounds.
+     * <p>
+     * Only the root is read, usually from the cache, so a client whose copy is still current is
+     * answered without building the tree.
+     *
+     * @param identifier the identifier of the root samurai
+     * @param request    the bounds of the tree
+     * @return the unquoted entity tag
+     * @throws ResponseStatusException if the samurai is not found or a bound is invalid
+     */
+    public String getSamuraiTreeETag(String identifier, OffspringTreeRequest request) {
+        int maxDepth = resolveTreeBound(request.getMaxDepth(), maxTreeDepth, "Max depth");
+        int maxNodes = resolveTreeBound(request.getMaxNodes(), maxTreeNodes, "Max nodes");
+        String relationshipType = resolveTreeRelationshipType(request);
+
+        Samurai root = getSamuraiByIdentifier(identifier);
+        return root.getIdentifier() + "-" + stampOf(root.getSubtreeVersion()) + "-" + maxDepth
+            + "-" + maxNodes + "-" + (relationshipType == null ? "ALL" : relationshipType);
+    }
+
+    /**
+     * Recomputes the subtree statistics of every samurai, repairing statistics that drifted or
+     * were never computed.
+     *
+     * @return the number of samurai whose statistics were recomputed
+     */
+    public long rebuildSubtreeStats() {
+        long updated = samuraiTraversalRepository.rebuildSubtreeStats(statsRebuildBatchSize);
+        eventPublisher.publishEvent(GenealogyChangedEvent.everything());
+        logger.info("Rebuilt the subtree statistics of {} samurai", updated);
+        return updated;
+    }
+
+    /**
+     * Lists samurai one page at a time, ordered by identifier.
+     * <p>
+     * The cursor of a page encodes the identifier of its last samurai, so the next page is read
+     * from the identifier index right after it, however deep into the listing it is.
+     *
+     * @param request the filters, the page size and the cursor of the requested page
+     * @return the samurai of the page and the cursor of the next one
+     * @throws ResponseStatusException if the page size, a year or the cursor is invalid
+     */
+    public SamuraiPageDTO listSamurai(ListSamuraiRequest request) {
+        int limit = request.getLimit() != null ? request.getLimit() : defaultPageLimit;
+        if (limit < 1 || limit > maxPageLimit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Limit must be between 1 and " + maxPageLimit);
+        }
+        String afterIdentifier = request.getCursor() != null
+            ? decodeCursor(request.getCursor()) : "";
+
+        // One more samurai than requested tells whether there is a next page
+        List<Samurai> samurai = samuraiRepository.findPage(afterIdentifier,
+            request.getFamilyName(), nameOf(request.getSocialStatus()),
+            nameOf(request.getClanStatus()), nameOf(request.getSex()),
+            startOfYear(request.getBornFrom()), startOfYearAfter(request.getBornTo()),
+            startOfYear(request.getDiedFrom()), startOfYearAfter(request.getDiedTo()), limit + 1);
+
+        boolean hasNextPage = samurai.size() > limit;
+        List<Samurai> page = hasNextPage ? samurai.subList(0, limit) : samurai;
+        String nextCursor = hasNextPage
+            ? encodeCursor(page.get(page.size() - 1).getIdentifier()) : null;
+        return new SamuraiPageDTO(page.stream().map(this::convertToDTO).toList(), nextCursor);
+    }
+
+    /**
+     * Encodes the identifier of the last samurai of a page as an opaque cursor.
+     *
+     * @param identifier the identifier of the last samurai
+     * @return the cursor
+     */
+    private static String encodeCursor(String identifier) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(identifier.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor created by {@link #encodeCursor(String)}.
+     *
+     * @param cursor the cursor
+     * @return the identifier of the last samurai of the previous page
+     * @throws ResponseStatusException if the cursor is malformed
+     */
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+    }
+
+    private static String nameOf(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+
+    private static LocalDate startOfYear(Integer year) {
+        if (year == null) {
+            return null;
+        }
+        // The year after the last one has to be representable as well
+        if (year < Year.MIN_VALUE || year >= Year.MAX_VALUE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Years must be between " + Year.MIN_VALUE + " and " + (Year.MAX_VALUE - 1));
+        }
+        return LocalDate.of(year, 1, 1);
+    }
+
+    private static LocalDate startOfYearAfter(Integer year) {
+        return year != null ? startOfYear(year).plusYears(1) : null;
+    }
+
+    /**
+     * Creates a new samurai and, if a parent identifier is provided, links it to its parent.
+     * <p>
+     * The uniqueness check, the creation and the link are done by a single statement, so a
+     * samurai is never created without its requested parent.
      *
      * @param request the request object containing the details of the samurai to create
      * @return the created samurai
-     * @throws ResponseStatusException if a samurai with the same given name and family name already exists
+     * @throws ResponseStatusException if the given name or family name is missing, if the parent
+     *                                 samurai is not found, or if a samurai with the same given
+     *                                 name and family name already exists
      */
     public Samurai createSamurai(CreateSamuraiRequest request) {
-        // Check for uniqueness
-        Optional<Samurai> existingSamurai = samuraiRepository
-            .findSamuraiByGivenNameAndFamilyName(request.getGivenName(), request.getFamilyName());
+        if (isBlank(request.getGivenName()) || isBlank(request.getFamilyName())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Given name and family name must be given");
+        }
+        String parentIdentifier = isBlank(request.getParentIdentifier())
+            ? null : request.getParentIdentifier();
+        String type = parentIdentifier == null
+            ? null : determineRelationshipType(request.getRelationshipType());
+
+        SamuraiCreateQueryResult result = samuraiRepository.createSamurai(request.getGivenName(),
+            request.getFamilyName(), toSamuraiProperties(request), parentIdentifier, type);
 
-        if (existingSamurai.isPresent()) {
+        // Nothing is written without the parent, so a name found then was there before
+        if (!Boolean.TRUE.equals(result.getParentFound())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Samurai not found");
+        }
+        if (result.getSamurai() != null && !Boolean.TRUE.equals(result.getCreated())) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Samurai already exists");
         }
 
-        // Create and save new samurai
-        Samurai samurai = new Samurai();
-        samurai.setSocialStatus(SocialStatus.SAMURAI);
-        samurai.setGivenName(request.getGivenName());
-        samurai.setFamilyName(request.getFamilyName());
+        Samurai savedSamurai = result.getSamurai();
+        List<String> changedIdentifiers = new ArrayList<>();
+        changedIdentifiers.add(savedSamurai.getIdentifier());
+        if (parentIdentifier != null) {
+            changedIdentifiers.addAll(samuraiRepository.addNewSamuraiToAncestorStats(
+                List.of(savedSamurai.getIdentifier())));
+            changedIdentifiers.addAll(propagateGenerationDepths(List.of(parentIdentifier)));
+        }
+        publishGenealogyChange(changedIdentifiers);
+        return savedSamurai;
+    }
 
-        // Generate nickname if not provided
-        if (request.getNickName() == null || request.getNickName().isEmpty()) {
-            samurai.setNickName(request.getFamilyName() + " " + request.getGivenName());
-        } else {
-            samurai.setNickName(request.getNickName());
+    /**
+     * Imports samurai in batches, writing each batch with a single statement.
+     * <p>
+     * Records are read lazily, so the import is never held in memory as a whole. A record is
+     * reported as {@code CONFLICT} when a samurai with the same given and family name already
+     * exists or appears earlier in the same import, as {@code PARENT_NOT_FOUND} when its parent
+     * does not exist and as {@code INVALID} when a name is missing or the relationship type is
+     * unknown.
+     *
+     * @param requests the records to import
+     * @return the per-record results in the order of the records
+     */
+    public BulkImportResponseDTO importSamurai(Iterator<CreateSamuraiRequest> requests) {
+        List<BulkImportResultDTO> results = new ArrayList<>();
+        Set<String> importedNames = new HashSet<>();
+        List<Map<String, Object>> batch = new ArrayList<>();
+
+        int index = 0;
+        while (requests.hasNext()) {
+            CreateSamuraiRequest request = requests.next();
+            int position = index++;
+
+            if (isBlank(request.getGivenName()) || isBlank(request.getFamilyName())) {
+                results.add(new BulkImportResultDTO(position, null, Status.INVALID));
+                continue;
+            }
+
+            String type;
+            try {
+                type = determineRelationshipType(request.getRelationshipType());
+            } catch (ResponseStatusException e) {
+                results.add(new BulkImportResultDTO(position, null, Status.INVALID));
+                continue;
+            }
+
+            // The first record with a given name wins, later ones conflict with it
+            if (!importedNames.add(request.getGivenName() + "\n" + request.getFamilyName())) {
+                results.add(new BulkImportResultDTO(position, null, Status.CONFLICT));
+                continue;
+            }
+
+            batch.add(toImportRow(position, request, type));
+            if (batch.size() >= importBatchSize) {
+                results.addAll(writeImportBatch(batch));
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            results.addAll(writeImportBatch(batch));
         }
 
-        // Set birthDate and deathDate if provided
-        if (request.getBirthDate() != null) {
-            samurai.setBirthDate(request.getBirthDate());
+        results.sort(Comparator.comparingInt(BulkImportResultDTO::getIndex));
+        return new BulkImportResponseDTO(results);
+    }
+
+    /**
+     * Writes one batch of an import.
+     *
+     * @param batch the rows of the batch
+     * @return the results of the rows
+     */
+    private List<BulkImportResultDTO> writeImportBatch(List<Map<String, Object>> batch) {
+        List<BulkImportResultDTO> results = new ArrayList<>(batch.size());
+        Map<Integer, String> parentIdentifiers = new HashMap<>();
+        for (Map<String, Object> row : batch) {
+            if (row.containsKey("parentIdentifier")) {
+                parentIdentifiers.put((Integer) row.get("position"),
+                    (String) row.get("parentIdentifier"));
+            }
         }
-        if (request.getDeathDate() != null) {
-            samurai.setDeathDate(request.getDeathDate());
+
+        List<String> createdIdentifiers = new ArrayList<>();
+        Set<String> createdParentIdentifiers = new HashSet<>();
+        for (SamuraiImportQueryResult row : samuraiRepository.importSamurai(batch)) {
+            Status status = Status.valueOf(row.getStatus());
+            int position = row.getPosition().intValue();
+            results.add(new BulkImportResultDTO(position,
+                status == Status.CREATED ? row.getIdentifier() : null, status));
+            if (status == Status.CREATED) {
+                createdIdentifiers.add(row.getIdentifier());
+                if (parentIdentifiers.containsKey(position)) {
+                    createdParentIdentifiers.add(parentIdentifiers.get(position));
+                }
+            }
         }
 
-        // Generate and set a random identifier
-        samurai.setIdentifier(UUID.randomUUID().toString());
+        // The parents are among the ancestors whose statistics change
+        List<String> changedIdentifiers = new ArrayList<>(createdIdentifiers);
+        if (!createdIdentifiers.isEmpty()) {
+            changedIdentifiers.addAll(
+                samuraiRepository.addNewSamuraiToAncestorStats(createdIdentifiers));
+            changedIdentifiers.addAll(propagateGenerationDepths(createdParentIdentifiers));
+        }
+        publishGenealogyChange(changedIdentifiers);
+        logger.debug("Imported batch of {} samurai", batch.size());
+        return results;
+    }
 
-        Samurai savedSamurai = samuraiRepository.save(samurai);
+    /**
+     * Converts an import record to the row expected by
+     * {@link SamuraiRepository#importSamurai(List)}. Missing values are left out of the row.
+     *
+     * @param position the position of the record in the import
+     * @param request  the record to convert
+     * @param type     the resolved relationship type
+     * @return the import row
+     */
+    private Map<String, Object> toImportRow(int position, CreateSamuraiRequest request,
+        String type) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("position", position);
+        row.put("givenName", request.getGivenName());
+        row.put("familyName", request.getFamilyName());
+        row.put("relationshipType", type);
+        row.put("properties", toSamuraiProperties(request));
+        if (!isBlank(request.getParentIdentifier())) {
+            row.put("parentIdentifier", request.getParentIdentifier());
+        }
+        return row;
+    }
 
-        // Generate parent-child relationship if parent identifier is provided
-        if (request.getParentIdentifier() != null && !request.getParentIdentifier().isEmpty()) {
-            Samurai parent = getSamuraiByIdentifier(request.getParentIdentifier());
-            String type = determineRelationshipType(request.getRelationshipType());
-            samuraiRepository.createParentChildRelationship(parent.getIdentifier(),
-                savedSamurai.getIdentifier(), type);
+    /**
+     * Builds the properties of a new samurai node with a freshly generated identifier. Missing
+     * values are left out of the map.
+     *
+     * @param request the request describing the samurai
+     * @return the node properties
+     */
+    private Map<String, Object> toSamuraiProperties(CreateSamuraiRequest request) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("identifier", UUID.randomUUID().toString());
+        properties.put("givenName", request.getGivenName());
+        properties.put("familyName", request.getFamilyName());
+        properties.put("socialStatus", SocialStatus.SAMURAI.toString());
+        // Generate nickname if not provided
+        properties.put("nickName", isBlank(request.getNickName())
+            ? request.getFamilyName() + " " + request.getGivenName() : request.getNickName());
+        if (request.getSex() != null) {
+            properties.put("sex", request.getSex().toString());
         }
-        return savedSamurai;
+        if (request.getBirthDate() != null) {
+            properties.put("birthDate", request.getBirthDate());
+        }
+        if (request.getDeathDate() != null) {
+            properties.put("deathDate", request.getDeathDate());
+        }
+        // A new samurai has no offspring yet
+        properties.put("descendantCount", 0);
+        properties.put("livingDescendantCount", 0);
+        properties.put("generationDepth", 0);
+        properties.put("version", 0L);
+        properties.put("subtreeVersion", 0L);
+        return properties;
     }
 
     /**
-     * Deletes a samurai by its identifier.
+     * Bumps the version stamps of the changed samurai and their ancestors, then announces the
+     * change. The stamps are written first, so caches refreshed by the event never hold a stale
+     * stamp.
+     *
+     * @param changedIdentifiers the identifiers of the changed samurai
+     */
+    private void publishGenealogyChange(List<String> changedIdentifiers) {
+        samuraiRepository.bumpVersions(changedIdentifiers);
+        eventPublisher.publishEvent(new GenealogyChangedEvent(changedIdentifiers));
+    }
+
+    /**
+     * Deletes a samurai by its identifier and updates the subtree statistics of its ancestors.
      *
      * @param identifier the identifier of the samurai to delete
      * @throws ResponseStatusException if the samurai is not found
      */
     public void deleteSamurai(String identifier) {
         Samurai samurai = getSamuraiByIdentifier(identifier);
+        List<String> parentIdentifiers =
+            samuraiRepository.findParentIdentifiersByIdentifier(identifier);
+
+        List<String> changedIdentifiers = new ArrayList<>();
+        changedIdentifiers.add(identifier);
+        if (!parentIdentifiers.isEmpty()) {
+            // The descendants only reachable through the samurai are lost with it
+            changedIdentifiers.addAll(
+                samuraiRepository.removeSamuraiFromAncestorStats(identifier));
+        }
         samuraiRepository.delete(samurai);
+        if (!parentIdentifiers.isEmpty()) {
+            changedIdentifiers.addAll(propagateGenerationDepths(parentIdentifiers));
+        }
+        publishGenealogyChange(changedIdentifiers);
     }
 
     /**
@@ -122,7 +590,7 @@ public class SamuraiService {
      */
     public void addParentChildRelationship(String parentIdentifier, String childIdentifier,
         String type) {
-        samuraiRepository.createParentChildRelationship(parentIdentifier, childIdentifier, type);
+        linkParentAndChild(parentIdentifier, childIdentifier, type);
     }
 
     /**
@@ -132,7 +600,7 @@ public class SamuraiService {
      * @param childIdentifier  the identifier of the child samurai
      */
     public void addParentChildRelationship(String parentIdentifier, String childIdentifier) {
-        samuraiRepository.createParentChildRelationship(parentIdentifier, childIdentifier,
+        linkParentAndChild(parentIdentifier, childIdentifier,
             String.valueOf(ParentChildRelationshipType.BIOLOGICAL));
     }
 
@@ -146,8 +614,172 @@ public class SamuraiService {
         Samurai parent = getSamuraiByIdentifier(request.getParentIdentifier());
         Samurai child = getSamuraiByIdentifier(request.getChildIdentifier());
         String type = determineRelationshipType(request.getRelationshipType());
-        samuraiRepository.createParentChildRelationship(parent.getIdentifier(),
-            child.getIdentifier(), type);
+        linkParentAndChild(parent.getIdentifier(), child.getIdentifier(), type);
+    }
+
+    /**
+     * Creates a parent-child relationship and updates the subtree statistics of the parent and
+     * its ancestors.
+     * <p>
+     * Each ancestor gains the samurai of the child's subtree it did not reach before, and the
+     * generation depths are updated upwards from the parent.
+     *
+     * @param parentIdentifier the identifier of the parent samurai
+     * @param childIdentifier  the identifier of the child samurai
+     * @param type             the type of relationship
+     */
+    private void linkParentAndChild(String parentIdentifier, String childIdentifier,
+        String type) {
+        String relationshipId = samuraiRepository.createParentChildRelationship(parentIdentifier,
+            childIdentifier, type);
+
+        List<String> changedIdentifiers = new ArrayList<>(List.of(parentIdentifier,
+            childIdentifier));
+        if (relationshipId != null) {
+            changedIdentifiers.addAll(
+                samuraiRepository.addRelationshipToAncestorStats(relationshipId, List.of()));
+            changedIdentifiers.addAll(propagateGenerationDepths(List.of(parentIdentifier)));
+        }
+        publishGenealogyChange(changedIdentifiers);
+    }
+
+    /**
+     * Adds many parent-child relationships at once.
+     * <p>
+     * The relationships are written in chunks, each chunk with a single statement and thus in its
+     * own transaction. A relationship is skipped when one of its identifiers is missing or does
+     * not match any samurai, or when its type is unknown.
+     *
+     * @param requests the relationships to add
+     * @return the number of linked relationships, the skipped positions and the identifiers that
+     * did not match any samurai
+     */
+    public BatchRelationshipResponseDTO addParentChildRelationships(
+        List<AddRelationshipRequest> requests) {
+        long linked = 0;
+        List<Integer> skipped = new ArrayList<>();
+        Set<String> unmatchedIdentifiers = new TreeSet<>();
+        List<Map<String, Object>> chunk = new ArrayList<>();
+
+        for (int position = 0; position < requests.size(); position++) {
+            AddRelationshipRequest request = requests.get(position);
+            if (isBlank(request.getParentIdentifier()) || isBlank(request.getChildIdentifier())) {
+                skipped.add(position);
+                continue;
+            }
+
+            Map<String, Object> row = new HashMap<>();
+            try {
+                row.put("relationshipType",
+                    determineRelationshipType(request.getRelationshipType()));
+            } catch (ResponseStatusException e) {
+                skipped.add(position);
+                continue;
+            }
+            row.put("position", position);
+            row.put("parentIdentifier", request.getParentIdentifier());
+            row.put("childIdentifier", request.getChildIdentifier());
+            chunk.add(row);
+
+            if (chunk.size() >= relationshipBatchSize) {
+                linked += writeRelationshipChunk(chunk, requests, skipped, unmatchedIdentifiers);
+                chunk = new ArrayList<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            linked += writeRelationshipChunk(chunk, requests, skipped, unmatchedIdentifiers);
+        }
+
+        Collections.sort(skipped);
+        return new BatchRelationshipResponseDTO(linked, skipped,
+            new ArrayList<>(unmatchedIdentifiers));
+    }
+
+    /**
+     * Writes one chunk of relationships and collects the rows whose samurai were not found.
+     *
+     * @param chunk                the rows of the chunk
+     * @param requests             all requested relationships, indexed by position
+     * @param skipped              the positions of skipped relationships, appended to
+     * @param unmatchedIdentifiers the identifiers without a samurai, appended to
+     * @return the number of linked relationships in the chunk
+     */
+    private long writeRelationshipChunk(List<Map<String, Object>> chunk,
+        List<AddRelationshipRequest> requests, List<Integer> skipped,
+        Set<String> unmatchedIdentifiers) {
+        long linked = 0;
+        List<String> changedIdentifiers = new ArrayList<>();
+        Set<String> parentIdentifiers = new HashSet<>();
+        List<String> createdRelationshipIds = new ArrayList<>();
+        for (SamuraiRelationshipQueryResult row :
+            samuraiRepository.createParentChildRelationships(chunk)) {
+            int position = row.getPosition().intValue();
+            AddRelationshipRequest request = requests.get(position);
+
+            if (row.getParentFound() && row.getChildFound()) {
+                linked++;
+                if (row.getRelationshipId() != null) {
+                    createdRelationshipIds.add(row.getRelationshipId());
+                    parentIdentifiers.add(request.getParentIdentifier());
+                }
+                changedIdentifiers.add(request.getParentIdentifier());
+                changedIdentifiers.add(request.getChildIdentifier());
+                continue;
+            }
+            skipped.add(position);
+            if (!row.getParentFound()) {
+                unmatchedIdentifiers.add(request.getParentIdentifier());
+            }
+            if (!row.getChildFound()) {
+                unmatchedIdentifiers.add(request.getChildIdentifier());
+            }
+        }
+        if (!changedIdentifiers.isEmpty()) {
+            // Relationships of one chunk may overlap, so each one is counted as if the ones after
+            // it were not created yet
+            for (int i = 0; i < createdRelationshipIds.size(); i++) {
+                changedIdentifiers.addAll(samuraiRepository.addRelationshipToAncestorStats(
+                    createdRelationshipIds.get(i),
+                    createdRelationshipIds.subList(i + 1, createdRelationshipIds.size())));
+            }
+            changedIdentifiers.addAll(propagateGenerationDepths(parentIdentifiers));
+            publishGenealogyChange(changedIdentifiers);
+        }
+        return linked;
+    }
+
+    /**
+     * Updates the generation depths of the given samurai, then of the parents of every samurai
+     * whose depth changed, until no depth changes any more.
+     * <p>
+     * Each depth is derived from the depths stored on the children, so only the ancestors of the
+     * change are visited, one generation per query.
+     *
+     * @param identifiers the identifiers of the samurai whose children changed
+     * @return the identifiers of the samurai whose generation depth changed
+     */
+    private List<String> propagateGenerationDepths(Collection<String> identifiers) {
+        List<String> changedIdentifiers = new ArrayList<>();
+        Set<String> visited = new HashSet<>(identifiers);
+        List<String> generation = List.copyOf(new LinkedHashSet<>(identifiers));
+        int generations = 0;
+        while (!generation.isEmpty()) {
+            if (++generations > visited.size()) {
+                // Only a cycle of relationships keeps changing the same samurai
+                logger.warn("Stopped updating generation depths above {} samurai in a cycle",
+                    generation.size());
+                break;
+            }
+            Set<String> parentIdentifiers = new LinkedHashSet<>();
+            for (SamuraiDepthQueryResult row :
+                samuraiRepository.updateGenerationDepths(generation)) {
+                changedIdentifiers.add(row.getIdentifier());
+                parentIdentifiers.addAll(row.getParentIdentifiers());
+            }
+            visited.addAll(parentIdentifiers);
+            generation = List.copyOf(parentIdentifiers);
+        }
+        return changedIdentifiers;
     }
 
     /**
@@ -155,57 +787,428 @@ public class SamuraiService {
      *
      * @param relationshipType the relationship type specified in the request
      * @return the determined relationship type (biological by default if not specified)
+     * @throws ResponseStatusException if the relationship type is unknown
      */
-    private String determineRelationshipType(String relationshipType) {
+    private static String determineRelationshipType(String relationshipType) {
         if (relationshipType == null || relationshipType.isEmpty()) {
             return ParentChildRelationshipType.BIOLOGICAL.toString();
-        } else {
-            return ParentChildRelationshipType.ADOPTED.toString();
+        }
+        try {
+            return ParentChildRelationshipType.valueOf(relationshipType.toUpperCase()).toString();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Unknown relationship type: " + relationshipType);
         }
     }
 
     /**
-     * Retrieves the entire tree of samurai starting from the given identifier.
+     * Checks whether a request value is missing.
+     *
+     * @param value the value to check
+     * @return {@code true} if the value is {@code null} or empty
+     */
+    private static boolean isBlank(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    /**
+     * Retrieves the tree of samurai starting from the given identifier, within the configured
+     * depth and size limits.
      *
      * @param identifier the identifier of the root samurai
      * @return the DTO representation of the samurai tree
      */
     public SamuraiDTO getSamuraiTree(String identifier) {
+        return getSamuraiTree(identifier, new OffspringTreeRequest());
+    }
+
+    /**
+     * Retrieves the tree of samurai starting from the given identifier, bounded in depth, size and
+     * relationship type.
+     * <p>
+     * When the size bound cuts the tree, the root is marked as truncated. Every samurai with
+     * offspring left out of the tree carries a continuation link that expands its branch with the
+     * same bounds.
+     *
+     * @param identifier the identifier of the root samurai
+     * @param request    the bounds of the tree
+     * @return the DTO representation of the samurai tree
+     * @throws ResponseStatusException if the samurai is not found or a bound is invalid
+     * @see #layoutTree(String, OffspringTreeRequest)
+     */
+    public SamuraiDTO getSamuraiTree(String identifier, OffspringTreeRequest request) {
+        TreeLayout layout = layoutTree(identifier, request);
+
+        // Parents come before their offspring, so the nodes are linked in a single pass
+        SamuraiDTO[] nodes = new SamuraiDTO[layout.samurai().size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = convertToDTO(layout.samurai().get(i));
+            if (i > 0) {
+                nodes[i].setRelationshipTypeWithParent(layout.relationshipTypes()[i]);
+                nodes[layout.parents()[i]].addOffspring(nodes[i]);
+            }
+        }
+        for (int i : layout.continued()) {
+            nodes[i].setContinuation(continuationOf(nodes[i].getIdentifier(), layout));
+        }
+        if (layout.truncated()) {
+            nodes[0].setTruncated(true);
+        }
+        return nodes[0];
+    }
+
+    /**
+     * Retrieves the tree of samurai starting from the given identifier in flat form, bounded in
+     * depth, size and relationship type.
+     * <p>
+     * The tree holds the same samurai as {@link #getSamuraiTree(String, OffspringTreeRequest)},
+     * but refers to parents and relationship types by index instead of nesting the offspring, so
+     * it is smaller and its depth does not matter when it is serialized.
+     *
+     * @param identifier the identifier of the root samurai
+     * @param request    the bounds of the tree
+     * @return the flat representation of the samurai tree
+     * @throws ResponseStatusException if the samurai is not found or a bound is invalid
+     */
+    public FlatSamuraiTreeDTO getFlatSamuraiTree(String identifier,
+        OffspringTreeRequest request) {
+        TreeLayout layout = layoutTree(identifier, request);
+
+        int size = layout.samurai().size();
+        List<FlatSamuraiTreeDTO.Node> nodes = new ArrayList<>(size);
+        Map<String, Integer> relationshipTypeIndexes = new LinkedHashMap<>();
+        int[] relationships = new int[size];
+        for (int i = 0; i < size; i++) {
+            nodes.add(new FlatSamuraiTreeDTO.Node(layout.samurai().get(i)));
+            String type = layout.relationshipTypes()[i];
+            relationships[i] = type == null ? -1 : relationshipTypeIndexes.computeIfAbsent(type,
+                key -> relationshipTypeIndexes.size());
+        }
+
+        FlatSamuraiTreeDTO tree = new FlatSamuraiTreeDTO(nodes, layout.parents(),
+            new ArrayList<>(relationshipTypeIndexes.keySet()), relationships);
+        if (!layout.continued().isEmpty()) {
+            tree.setContinued(layout.continued().stream().mapToInt(Integer::intValue).toArray());
+            tree.setContinuation(flatContinuationOf(layout));
+        }
+        if (layout.truncated()) {
+            tree.setTruncated(true);
+        }
+        return tree;
+    }
+
+    /**
+     * Lays out the tree of samurai starting from the given identifier, bounded in depth, size and
+     * relationship type.
+     * <p>
+     * All edges within the bounds are fetched one generation at a time by the
+     * {@link OffspringTreeLoader}, or from the {@link GenealogyGraph} when it is enabled. The tree
+     * is then walked depth-first with an explicit stack, so its depth is not limited by the call
+     * stack. A samurai reached through several parents is placed under the first one walked.
+     *
+     * @param identifier the identifier of the root samurai
+     * @param request    the bounds of the tree
+     * @return the samurai of the tree in depth-first order with their parents
+     * @throws ResponseStatusException if the samurai is not found or a bound is invalid
+     */
+    private TreeLayout layoutTree(String identifier, OffspringTreeRequest request) {
+        int maxDepth = resolveTreeBound(request.getMaxDepth(), maxTreeDepth, "Max depth");
+        int maxNodes = resolveTreeBound(request.getMaxNodes(), maxTreeNodes, "Max nodes");
+        String relationshipType = resolveTreeRelationshipType(request);
+
         Samurai rootSamurai = getSamuraiByIdentifier(identifier);
-        SamuraiDTO rootDTO = convertToDTO(rootSamurai);
 
-        // Map to keep track of visited samurai
-        Map<String, SamuraiDTO> visited = new HashMap<>();
-        visited.put(rootDTO.getIdentifier(), rootDTO);
+        // The root and one more samurai than requested tell whether the size bound cut the tree
+        GenealogyGraph graph = genealogyGraphProjection.current();
+        List<SamuraiTreeEdgeQueryResult> edges = graph != null
+            ? graph.findOffspringTreeEdges(identifier, maxDepth, relationshipType, maxNodes + 2)
+            : offspringTreeLoader.findOffspringTreeEdges(rootSamurai, maxDepth, relationshipType,
+                maxNodes + 2);
+        Map<String, List<String>> offspringIdentifiers = new HashMap<>();
+        for (SamuraiTreeEdgeQueryResult edge : edges) {
+            offspringIdentifiers.putIfAbsent(edge.getOffspring().getIdentifier(),
+                edge.getOffspringIdentifiers());
+        }
+        boolean truncated = offspringIdentifiers.size() > maxNodes + 1;
+        String excluded = truncated
+            ? edges.get(edges.size() - 1).getOffspring().getIdentifier() : null;
 
-        buildTree(rootDTO, visited);
+        // Group the flat edge list by parent, keeping the order returned by the query
+        Map<String, List<SamuraiEdgeQueryResult>> childrenByParent = new HashMap<>();
+        for (SamuraiTreeEdgeQueryResult edge : edges) {
+            if (edge.getParentIdentifier() != null
+                && !edge.getOffspring().getIdentifier().equals(excluded)) {
+                childrenByParent.computeIfAbsent(edge.getParentIdentifier(),
+                    key -> new ArrayList<>()).add(edge);
+            }
+        }
 
-        return rootDTO;
+        // Walk the tree depth-first, keeping track of visited samurai to stop on cycles
+        int capacity = offspringIdentifiers.size() + 1;
+        List<Samurai> samurai = new ArrayList<>(capacity);
+        int[] parents = new int[capacity];
+        String[] relationshipTypes = new String[capacity];
+        int[] depths = new int[capacity];
+        Set<String> visited = new HashSet<>();
+        Deque<PendingOffspring> pending = new ArrayDeque<>();
+        samurai.add(rootSamurai);
+        parents[0] = -1;
+        visited.add(rootSamurai.getIdentifier());
+        pushOffspring(pending, childrenByParent, rootSamurai.getIdentifier(), 0);
+        int depth = 0;
+        while (!pending.isEmpty()) {
+            PendingOffspring next = pending.pop();
+            Samurai child = next.edge().getOffspring();
+            if (!visited.add(child.getIdentifier())) {
+                continue;
+            }
+            int index = samurai.size();
+            samurai.add(child);
+            parents[index] = next.parentIndex();
+            relationshipTypes[index] = next.edge().getRelationshipType();
+            depths[index] = depths[next.parentIndex()] + 1;
+            depth = Math.max(depth, depths[index]);
+            pushOffspring(pending, childrenByParent, child.getIdentifier(), index);
+        }
+        treeNodeCount.record(samurai.size());
+        treeDepth.record(depth);
+
+        // Offer a continuation for every samurai whose offspring did not all make it into the tree
+        List<Integer> continued = new ArrayList<>();
+        for (int i = 0; i < samurai.size(); i++) {
+            List<String> children =
+                offspringIdentifiers.getOrDefault(samurai.get(i).getIdentifier(), List.of());
+            if (!visited.containsAll(children)) {
+                continued.add(i);
+            }
+        }
+        return new TreeLayout(samurai, Arrays.copyOf(parents, samurai.size()),
+            Arrays.copyOf(relationshipTypes, samurai.size()), continued, truncated, maxDepth,
+            maxNodes, relationshipType);
+    }
+
+    /**
+     * Pushes the offspring of a samurai onto the stack of a depth-first walk, so that they are
+     * popped in the order returned by the query.
+     *
+     * @param pending          the stack of offspring still to walk
+     * @param childrenByParent the edges of the tree grouped by parent identifier
+     * @param parentIdentifier the identifier of the parent
+     * @param parentIndex      the index of the parent in the tree
+     */
+    private static void pushOffspring(Deque<PendingOffspring> pending,
+        Map<String, List<SamuraiEdgeQueryResult>> childrenByParent, String parentIdentifier,
+        int parentIndex) {
+        List<SamuraiEdgeQueryResult> children =
+            childrenByParent.getOrDefault(parentIdentifier, List.of());
+        for (int i = children.size() - 1; i >= 0; i--) {
+            pending.push(new PendingOffspring(children.get(i), parentIndex));
+        }
+    }
+
+    /**
+     * Resolves a bound of an offspring tree, falling back to the configured limit.
+     *
+     * @param value the requested bound, or {@code null}
+     * @param limit the configured limit
+     * @param name  the name of the bound, used in the error message
+     * @return the bound to apply
+     * @throws ResponseStatusException if the requested bound is out of range
+     */
+    static int resolveTreeBound(Integer value, int limit, String name) {
+        if (value == null) {
+            return limit;
+        }
+        if (value < 1 || value > limit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                name + " must be between 1 and " + limit);
+        }
+        return value;
+    }
+
+    /**
+     * Resolves the only relationship type an offspring tree follows.
+     *
+     * @param request the bounds of the tree
+     * @return the relationship type, or {@code null} to follow all types
+     * @throws ResponseStatusException if the relationship type is unknown
+     */
+    static String resolveTreeRelationshipType(OffspringTreeRequest request) {
+        return isBlank(request.getRelationshipType())
+            ? null : determineRelationshipType(request.getRelationshipType());
+    }
+
+    /**
+     * Returns a version stamp, counting a stamp that was never written as {@code 0}.
+     *
+     * @param stamp the stored stamp, or {@code null}
+     * @return the stamp
+     */
+    private static long stampOf(Long stamp) {
+        return stamp == null ? 0 : stamp;
+    }
+
+    /**
+     * Builds the link expanding the branch of a samurai that was cut off an offspring tree.
+     *
+     * @param identifier the identifier of the samurai
+     * @param layout     the tree the samurai was cut off
+     * @return the continuation link
+     */
+    private static String continuationOf(String identifier, TreeLayout layout) {
+        return continuationBuilder(layout).buildAndExpand(identifier).encode().toUriString();
     }
 
     /**
-     * Builds the samurai tree recursively.
+     * Builds the link template expanding the branches cut off a flat offspring tree.
      *
-     * @param parentDTO the parent samurai DTO
-     * @param visited   the map of visited samurai
+     * @param layout the tree the branches were cut off
+     * @return the continuation link, with an {@code {identifier}} placeholder
      */
-    private void buildTree(SamuraiDTO parentDTO, Map<String, SamuraiDTO> visited) {
-        List<SamuraiOffspringQueryResult> children =
-            samuraiRepository.findAllOffspringByIdentifierWithType(parentDTO.getIdentifier());
+    private static String flatContinuationOf(TreeLayout layout) {
+        return continuationBuilder(layout).queryParam("format", "flat").build().toUriString();
+    }
 
-        for (SamuraiOffspringQueryResult childData : children) {
-            Samurai child = childData.getOffspring();
-            String relationshipType = childData.getRelationshipType();
+    private static UriComponentsBuilder continuationBuilder(TreeLayout layout) {
+        return UriComponentsBuilder.fromPath(OFFSPRING_TREE_PATH)
+            .queryParam("maxDepth", layout.maxDepth())
+            .queryParam("maxNodes", layout.maxNodes())
+            .queryParamIfPresent("relationshipType",
+                Optional.ofNullable(layout.relationshipType()));
+    }
 
-            // Avoid cyclic relationships by checking if the samurai has been visited
-            if (!visited.containsKey(child.getIdentifier())) {
-                SamuraiDTO childDTO = convertToDTO(child);
-                childDTO.setRelationshipTypeWithParent(relationshipType);
-                visited.put(child.getIdentifier(), childDTO);
-                parentDTO.addOffspring(childDTO);
-                buildTree(childDTO, visited);
+    /**
+     * Streams the tree of samurai starting from the given root, one node at a time, bounded in
+     * depth, size and relationship type like {@link #getSamuraiTree(String, OffspringTreeRequest)}.
+     * <p>
+     * The root is emitted first with depth {@code 0}, followed by its offspring generation by
+     * generation while the rows are read from the database. The stream ends after the last
+     * generation within the depth bound, or after as many offspring as the size bound allows.
+     *
+     * @param root     the root samurai
+     * @param request  the bounds of the tree
+     * @param consumer the consumer receiving each node of the tree
+     * @throws ResponseStatusException if a bound or the relationship type is invalid
+     */
+    public void streamSamuraiTree(Samurai root, OffspringTreeRequest request,
+        Consumer<OffspringNodeDTO> consumer) {
+        int maxDepth = resolveTreeBound(request.getMaxDepth(), maxTreeDepth, "Max depth");
+        int maxNodes = resolveTreeBound(request.getMaxNodes(), maxTreeNodes, "Max nodes");
+        String relationshipType = resolveTreeRelationshipType(request);
+
+        consumer.accept(new OffspringNodeDTO(root.getIdentifier(), null, 0, null,
+            root.getGivenName(), root.getFamilyName()));
+        samuraiTraversalRepository.streamOffspring(root.getIdentifier(), maxDepth,
+            relationshipType, maxNodes, consumer);
+    }
+
+    /**
+     * Retrieves the ancestors of a samurai as a tree of parents.
+     * <p>
+     * All edges of the lineage are fetched in one query, or from the {@link GenealogyGraph} when it
+     * is enabled, and the tree is assembled in memory, nearest generations first. An ancestor
+     * reached through several lines is expanded only the first time; later occurrences carry the
+     * ancestor itself but not its parents.
+     *
+     * @param identifier the identifier of the samurai
+     * @param depth      the number of generations to go up, or {@code null} for the maximum
+     * @return the DTO representation of the samurai with its parents
+     * @throws ResponseStatusException if the samurai is not found or the depth is invalid
+     */
+    public SamuraiDTO getSamuraiAncestorTree(String identifier, Integer depth) {
+        SamuraiDTO rootDTO = convertToDTO(getSamuraiByIdentifier(identifier));
+        Map<String, List<SamuraiAncestorEdgeQueryResult>> parentsByChild =
+            findAncestorEdges(identifier, depth);
+
+        Set<String> expanded = new HashSet<>();
+        expanded.add(rootDTO.getIdentifier());
+        Deque<SamuraiDTO> queue = new ArrayDeque<>();
+        queue.add(rootDTO);
+        while (!queue.isEmpty()) {
+            SamuraiDTO childDTO = queue.poll();
+            for (SamuraiAncestorEdgeQueryResult edge : parentsByChild.getOrDefault(
+                childDTO.getIdentifier(), List.of())) {
+                SamuraiDTO parentDTO = convertToDTO(edge.getParent());
+                parentDTO.setRelationshipTypeWithChild(edge.getRelationshipType());
+                childDTO.addParent(parentDTO);
+                if (expanded.add(parentDTO.getIdentifier())) {
+                    queue.add(parentDTO);
+                }
             }
         }
+        return rootDTO;
+    }
+
+    /**
+     * Retrieves the ancestors of a samurai as a flat list.
+     * <p>
+     * Every ancestor appears once, ordered by the smallest number of generations between it and
+     * the samurai, and lists its children within the lineage.
+     *
+     * @param identifier the identifier of the samurai
+     * @param depth      the number of generations to go up, or {@code null} for the maximum
+     * @return the ancestors of the samurai
+     * @throws ResponseStatusException if the samurai is not found or the depth is invalid
+     */
+    public List<AncestorDTO> getSamuraiAncestorList(String identifier, Integer depth) {
+        Samurai root = getSamuraiByIdentifier(identifier);
+        Map<String, List<SamuraiAncestorEdgeQueryResult>> parentsByChild =
+            findAncestorEdges(identifier, depth);
+
+        // Ancestors in breadth-first order, so each one is first reached at its smallest depth
+        Map<String, AncestorDTO> ancestors = new LinkedHashMap<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(root.getIdentifier());
+        Map<String, Integer> depths = new HashMap<>();
+        depths.put(root.getIdentifier(), 0);
+        while (!queue.isEmpty()) {
+            String childIdentifier = queue.poll();
+            int parentDepth = depths.get(childIdentifier) + 1;
+            for (SamuraiAncestorEdgeQueryResult edge : parentsByChild.getOrDefault(
+                childIdentifier, List.of())) {
+                Samurai parent = edge.getParent();
+                if (depths.putIfAbsent(parent.getIdentifier(), parentDepth) == null) {
+                    queue.add(parent.getIdentifier());
+                }
+                AncestorDTO ancestor = ancestors.get(parent.getIdentifier());
+                if (ancestor == null) {
+                    ancestor = convertToAncestorDTO(parent, parentDepth);
+                    ancestors.put(parent.getIdentifier(), ancestor);
+                }
+                ancestor.addChild(childIdentifier, edge.getRelationshipType());
+            }
+        }
+        return new ArrayList<>(ancestors.values());
+    }
+
+    /**
+     * Fetches the edges of a lineage and groups them by child, keeping the order returned by the
+     * query.
+     *
+     * @param identifier the identifier of the samurai
+     * @param depth      the number of generations to go up, or {@code null} for the maximum
+     * @return the edges of the lineage grouped by child identifier
+     * @throws ResponseStatusException if the depth is invalid
+     */
+    private Map<String, List<SamuraiAncestorEdgeQueryResult>> findAncestorEdges(String identifier,
+        Integer depth) {
+        if (depth != null && (depth < 1 || depth > maxAncestorDepth)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Depth must be between 1 and " + maxAncestorDepth);
+        }
+
+        int maxDepth = depth != null ? depth : maxAncestorDepth;
+        GenealogyGraph graph = genealogyGraphProjection.current();
+        List<SamuraiAncestorEdgeQueryResult> edges = graph != null
+            ? graph.findAncestorEdges(identifier, maxDepth)
+            : samuraiRepository.findAncestorEdgesByIdentifier(identifier, maxDepth);
+
+        Map<String, List<SamuraiAncestorEdgeQueryResult>> parentsByChild = new HashMap<>();
+        for (SamuraiAncestorEdgeQueryResult edge : edges) {
+            parentsByChild.computeIfAbsent(edge.getChildIdentifier(), key -> new ArrayList<>())
+                .add(edge);
+        }
+        return parentsByChild;
     }
 
     /**
@@ -221,6 +1224,41 @@ public class SamuraiService {
         dto.setBirthDate(samurai.getBirthDate());
         dto.setDeathDate(samurai.getDeathDate());
         dto.setSex(samurai.getSex());
+        dto.setDescendantCount(samurai.getDescendantCount());
+        dto.setLivingDescendantCount(samurai.getLivingDescendantCount());
+        dto.setGenerationDepth(samurai.getGenerationDepth());
         return dto;
     }
+
+    /**
+     * Converts a samurai entity to its representation in a flat lineage.
+     *
+     * @param samurai the samurai entity
+     * @param depth   the number of generations between the ancestor and the samurai
+     * @return the ancestor representation of the samurai
+     */
+    private AncestorDTO convertToAncestorDTO(Samurai samurai, int depth) {
+        AncestorDTO dto = new AncestorDTO(samurai.getIdentifier(), samurai.getGivenName(),
+            samurai.getFamilyName(), depth);
+        dto.setNickName(samurai.getNickName());
+        dto.setBirthDate(samurai.getBirthDate());
+        dto.setDeathDate(samurai.getDeathDate());
+        return dto;
+    }
+
+    /**
+     * An offspring tree in depth-first order, with the index of every samurai's parent and the
+     * type of the relationship with it, the indexes of the samurai whose offspring were cut off,
+     * and the bounds the tree was laid out with.
+     */
+    private record TreeLayout(List<Samurai> samurai, int[] parents, String[] relationshipTypes,
+        List<Integer> continued, boolean truncated, int maxDepth, int maxNodes,
+        String relationshipType) {
+    }
+
+    /**
+     * An offspring of a walked samurai that is still to be walked.
+     */
+    private record PendingOffspring(SamuraiEdgeQueryResult edge, int parentIndex) {
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.fran.spring_boot_neo4j.services;
 import com.fran.spring_boot_neo4j.models.User;
 import com.fran.spring_boot_neo4j.repositories.UserRepository;
 import com.fran.spring_boot_neo4j.requests.CreateUserRequest;
+import com.fran.spring_boot_neo4j.security.CachingAuthenticationProvider;
 import java.util.Optional;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -17,17 +18,22 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CachingAuthenticationProvider cachingAuthenticationProvider;
 
     /**
-     * Constructs a new {@code UserService} with the specified {@code UserRepository} and
-     * {@code PasswordEncoder}.
+     * Constructs a new {@code UserService} with the specified {@code UserRepository},
+     * {@code PasswordEncoder} and {@code CachingAuthenticationProvider}.
      *
-     * @param userRepository  the repository to manage users
-     * @param passwordEncoder the password encoder to encode user passwords
+     * @param userRepository                the repository to manage users
+     * @param passwordEncoder               the password encoder to encode user passwords
+     * @param cachingAuthenticationProvider the provider whose cached logins are invalidated when a
+     *                                      user changes
      */
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+        CachingAuthenticationProvider cachingAuthenticationProvider) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.cachingAuthenticationProvider = cachingAuthenticationProvider;
     }
 
     /**
@@ -52,6 +58,7 @@ public class UserService {
 
         // Save the user to the repository
         userRepository.save(user);
+        cachingAuthenticationProvider.invalidate(user.getUsername());
         return user;
     }
 }
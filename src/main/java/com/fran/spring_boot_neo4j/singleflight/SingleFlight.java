@@ -0,0 +1,129 @@
+package com.fran.spring_boot_neo4j.singleflight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single execution.
+ * <p>
+ * The first caller for a key runs the action on its own thread; callers arriving while it runs
+ * wait for its result instead of running the action again. A failure of the action is thrown to
+ * every waiting caller, and nothing is remembered once the action has completed, so the next
+ * caller runs it anew. A waiting caller gives up after the configured time, while the running
+ * action carries on for the callers still waiting.
+ * <p>
+ * The number of executed, coalesced and timed out calls is published as
+ * {@code singleflight.calls}, and the number of running actions as
+ * {@code singleflight.in.flight}, both tagged with the name of the single flight.
+ */
+public class SingleFlight {
+
+    private final String name;
+    private final Duration maxWait;
+    private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+    private final Counter timedOut;
+
+    /**
+     * Constructs a new {@code SingleFlight}.
+     *
+     * @param name          the name of the single flight
+     * @param maxWait       the maximum time a caller waits for an action run by another caller
+     * @param meterRegistry the registry to publish the call metrics to
+     */
+    public SingleFlight(String name, Duration maxWait, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxWait = maxWait;
+        this.executed = callCounter("executed", meterRegistry);
+        this.coalesced = callCounter("coalesced", meterRegistry);
+        this.timedOut = callCounter("timed_out", meterRegistry);
+        Gauge.builder("singleflight.in.flight", inFlight, Map::size)
+            .description("Number of actions currently running")
+            .tag("name", name)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Runs an action, or waits for the result of the same action already run by another caller.
+     *
+     * @param key    the key identifying the action and its arguments
+     * @param action the action to run
+     * @param <T>    the result type of the action
+     * @return the result of the action
+     * @throws SingleFlightTimeoutException if the action run by another caller did not complete
+     *                                      in time
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> action) {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            coalesced.increment();
+            return (T) await(running);
+        }
+
+        executed.increment();
+        try {
+            T result = action.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getExecuted() {
+        return (long) executed.count();
+    }
+
+    public long getCoalesced() {
+        return (long) coalesced.count();
+    }
+
+    public long getTimedOut() {
+        return (long) timedOut.count();
+    }
+
+    private Object await(CompletableFuture<Object> running) {
+        try {
+            return running.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            // Only unchecked throwables complete the future, see execute
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw (RuntimeException) e.getCause();
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            throw new SingleFlightTimeoutException(name);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SingleFlightTimeoutException(name);
+        }
+    }
+
+    private Counter callCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("singleflight.calls")
+            .description("Number of calls, by whether they ran the action or waited for another")
+            .tag("name", name)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+}
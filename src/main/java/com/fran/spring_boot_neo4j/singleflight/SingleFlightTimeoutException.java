@@ -0,0 +1,28 @@
+package com.fran.spring_boot_neo4j.singleflight;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a caller of a {@link SingleFlight} stops waiting for the action run by another
+ * caller. Answered with 503, like a full bulkhead.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SingleFlightTimeoutException extends RuntimeException {
+
+    private final String singleFlightName;
+
+    /**
+     * Constructs a new {@code SingleFlightTimeoutException}.
+     *
+     * @param singleFlightName the name of the single flight the caller was waiting on
+     */
+    public SingleFlightTimeoutException(String singleFlightName) {
+        super("Timed out waiting on single flight '" + singleFlightName + "'");
+        this.singleFlightName = singleFlightName;
+    }
+
+    public String getSingleFlightName() {
+        return singleFlightName;
+    }
+}
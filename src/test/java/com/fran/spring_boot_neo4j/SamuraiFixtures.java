@@ -0,0 +1,79 @@
+package com.fran.spring_boot_neo4j;
+
+import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiAncestorEdgeQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiTreeEdgeQueryResult;
+
+import java.util.List;
+
+/**
+ * Samurai and genealogy edges shared by the tests.
+ */
+public final class SamuraiFixtures {
+
+    private SamuraiFixtures() {
+    }
+
+    /**
+     * Creates a samurai with only an identifier.
+     *
+     * @param identifier the identifier of the samurai
+     * @return the samurai
+     */
+    public static Samurai samurai(String identifier) {
+        Samurai samurai = new Samurai();
+        samurai.setIdentifier(identifier);
+        return samurai;
+    }
+
+    /**
+     * Creates a samurai with an identifier and a name.
+     *
+     * @param identifier the identifier of the samurai
+     * @param givenName  the given name of the samurai
+     * @param familyName the family name of the samurai
+     * @return the samurai
+     */
+    public static Samurai samurai(String identifier, String givenName, String familyName) {
+        Samurai samurai = samurai(identifier);
+        samurai.setGivenName(givenName);
+        samurai.setFamilyName(familyName);
+        return samurai;
+    }
+
+    /**
+     * Creates an edge of an offspring tree.
+     *
+     * @param parentIdentifier     the identifier of the parent, {@code null} for the root row
+     * @param offspring            the offspring
+     * @param relationshipType     the type of the relationship
+     * @param offspringIdentifiers the identifiers of the offspring's own offspring
+     * @return the edge
+     */
+    public static SamuraiTreeEdgeQueryResult edge(String parentIdentifier, Samurai offspring,
+        String relationshipType, String... offspringIdentifiers) {
+        SamuraiTreeEdgeQueryResult edge = new SamuraiTreeEdgeQueryResult();
+        edge.setParentIdentifier(parentIdentifier);
+        edge.setOffspring(offspring);
+        edge.setRelationshipType(relationshipType);
+        edge.setOffspringIdentifiers(List.of(offspringIdentifiers));
+        return edge;
+    }
+
+    /**
+     * Creates an edge of an ancestor tree.
+     *
+     * @param childIdentifier  the identifier of the child
+     * @param parent           the parent
+     * @param relationshipType the type of the relationship
+     * @return the edge
+     */
+    public static SamuraiAncestorEdgeQueryResult ancestorEdge(String childIdentifier,
+        Samurai parent, String relationshipType) {
+        SamuraiAncestorEdgeQueryResult edge = new SamuraiAncestorEdgeQueryResult();
+        edge.setChildIdentifier(childIdentifier);
+        edge.setParent(parent);
+        edge.setRelationshipType(relationshipType);
+        return edge;
+    }
+}
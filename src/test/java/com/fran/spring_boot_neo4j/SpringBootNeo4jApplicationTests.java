@@ -3,7 +3,7 @@ package com.fran.spring_boot_neo4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "app.schema.bootstrap-on-startup=false")
 class SpringBootNeo4jApplicationTests {
 
 	@Test
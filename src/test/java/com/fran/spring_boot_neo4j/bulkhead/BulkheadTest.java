@@ -0,0 +1,48 @@
+package com.fran.spring_boot_neo4j.bulkhead;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkheadTest {
+
+    @Test
+    void testRejectsCallersBeyondMaxConcurrent() {
+        // Arrange
+        Bulkhead bulkhead = new Bulkhead("tree", 2, Duration.ofMillis(10));
+
+        // Act
+        boolean first = bulkhead.tryAcquire();
+        boolean second = bulkhead.tryAcquire();
+        boolean third = bulkhead.tryAcquire();
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertEquals(2, bulkhead.getActive());
+        assertEquals(0, bulkhead.getQueued());
+        assertEquals(1, bulkhead.getRejected());
+    }
+
+    @Test
+    void testExecuteReleasesPermitAndThrowsWhenFull() {
+        // Arrange
+        Bulkhead bulkhead = new Bulkhead("write", 1, Duration.ZERO);
+
+        // Act
+        String result = bulkhead.execute(() -> "done");
+        bulkhead.tryAcquire();
+
+        // Assert
+        assertEquals("done", result);
+        BulkheadFullException exception = assertThrows(BulkheadFullException.class,
+            () -> bulkhead.execute(() -> "rejected"));
+        assertEquals("write", exception.getBulkheadName());
+    }
+}
@@ -0,0 +1,61 @@
+package com.fran.spring_boot_neo4j.cache;
+
+import com.fran.spring_boot_neo4j.events.GenealogyChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class OffspringTreeCacheTest {
+
+    private OffspringTreeCache cache;
+    private AtomicInteger builds;
+
+    @BeforeEach
+    void setUp() {
+        cache = new OffspringTreeCache(DataSize.ofMegabytes(1), Duration.ofHours(1));
+        builds = new AtomicInteger();
+    }
+
+    @Test
+    void testGetBuildsOnceAndDropsTreesOfChangedAncestors() {
+        // Arrange
+        byte[] first = cache.get("root", "root-1-ALL", "nested", this::build);
+        cache.get("other", "other-1-ALL", "nested", this::build);
+
+        // Act
+        byte[] hit = cache.get("root", "root-1-ALL", "nested", this::build);
+        cache.get("root", "root-1-ALL", "flat", this::build);
+        cache.onGenealogyChanged(GenealogyChangedEvent.of("child", "root"));
+        cache.get("root", "root-1-ALL", "nested", this::build);
+        cache.get("other", "other-1-ALL", "nested", this::build);
+
+        // Assert
+        assertSame(first, hit);
+        assertEquals(4, builds.get());
+        assertEquals(2, cache.stats().hitCount());
+    }
+
+    @Test
+    void testGetDoesNotKeepTreeBuiltDuringChange() {
+        // Act
+        cache.get("root", "root-1-ALL", "nested", () -> {
+            cache.onGenealogyChanged(GenealogyChangedEvent.everything());
+            return build();
+        });
+        cache.get("root", "root-1-ALL", "nested", this::build);
+
+        // Assert
+        assertEquals(2, builds.get());
+        assertEquals(0, cache.stats().hitCount());
+    }
+
+    private byte[] build() {
+        return ("{\"build\":" + builds.incrementAndGet() + "}").getBytes();
+    }
+}
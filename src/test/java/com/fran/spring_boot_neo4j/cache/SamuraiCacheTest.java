@@ -0,0 +1,80 @@
+package com.fran.spring_boot_neo4j.cache;
+
+import com.fran.spring_boot_neo4j.events.GenealogyChangedEvent;
+import com.fran.spring_boot_neo4j.models.Samurai;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.fran.spring_boot_neo4j.SamuraiFixtures.samurai;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SamuraiCacheTest {
+
+    private SamuraiCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SamuraiCache(100, Duration.ofHours(1));
+    }
+
+    @Test
+    void testGetAllLoadsOnlyMissesAndCachesThem() {
+        // Arrange
+        Samurai nobunaga = samurai("nobunaga");
+        Samurai ieyasu = samurai("ieyasu");
+        cache.get("nobunaga", identifier -> Optional.of(nobunaga));
+
+        // Act
+        Map<String, Samurai> found = cache.getAll(List.of("nobunaga", "ieyasu", "missing"),
+            identifiers -> {
+                assertEquals(List.of("ieyasu", "missing"), List.copyOf(identifiers));
+                return List.of(ieyasu);
+            });
+        Optional<Samurai> cached = cache.get("ieyasu", identifier -> Optional.empty());
+
+        // Assert
+        assertEquals(Map.of("nobunaga", nobunaga, "ieyasu", ieyasu), found);
+        assertSame(ieyasu, cached.orElseThrow());
+    }
+
+    @Test
+    void testGetAllDoesNotKeepSamuraiLoadedDuringChange() {
+        // Arrange
+        Samurai stale = samurai("nobunaga");
+        Samurai fresh = samurai("nobunaga");
+
+        // Act
+        cache.getAll(List.of("nobunaga"), identifiers -> {
+            cache.onGenealogyChanged(GenealogyChangedEvent.of("nobunaga"));
+            return List.of(stale);
+        });
+        Optional<Samurai> reloaded = cache.get("nobunaga", identifier -> Optional.of(fresh));
+
+        // Assert
+        assertSame(fresh, reloaded.orElseThrow());
+    }
+
+    @Test
+    void testGetDoesNotKeepSamuraiLoadedDuringChange() {
+        // Arrange
+        Samurai stale = samurai("nobunaga");
+        Samurai fresh = samurai("nobunaga");
+
+        // Act
+        Optional<Samurai> loaded = cache.get("nobunaga", identifier -> {
+            cache.onGenealogyChanged(GenealogyChangedEvent.of("nobunaga"));
+            return Optional.of(stale);
+        });
+        Optional<Samurai> reloaded = cache.get("nobunaga", identifier -> Optional.of(fresh));
+
+        // Assert
+        assertSame(stale, loaded.orElseThrow());
+        assertSame(fresh, reloaded.orElseThrow());
+    }
+}
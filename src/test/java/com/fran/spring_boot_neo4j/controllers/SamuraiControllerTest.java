@@ -1,20 +1,37 @@
 package com.fran.spring_boot_neo4j.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fran.spring_boot_neo4j.cache.OffspringTreeCache;
 import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.objects.OffspringNodeDTO;
 import com.fran.spring_boot_neo4j.objects.SamuraiDTO;
 import com.fran.spring_boot_neo4j.requests.CreateSamuraiRequest;
+import com.fran.spring_boot_neo4j.requests.OffspringTreeRequest;
 import com.fran.spring_boot_neo4j.services.SamuraiService;
+import com.fran.spring_boot_neo4j.singleflight.SingleFlight;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class SamuraiControllerTest {
@@ -43,7 +60,8 @@ class SamuraiControllerTest {
         when(samuraiService.getSamuraiByIdentifier(identifier)).thenReturn(samurai);
 
         // Act
-        ResponseEntity<SamuraiDTO> response = samuraiController.getSamuraiByIdentifier(identifier);
+        ResponseEntity<SamuraiDTO> response = samuraiController.getSamuraiByIdentifier(identifier,
+            new ServletWebRequest(new MockHttpServletRequest()));
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -55,6 +73,41 @@ class SamuraiControllerTest {
         verify(samuraiService, times(1)).getSamuraiByIdentifier(identifier);
     }
 
+    @Test
+    void testGetSamuraiOffspringAnswersNotModifiedWithoutBuildingTree() {
+        // Arrange
+        OffspringTreeRequest request = new OffspringTreeRequest();
+        when(samuraiService.getSamuraiTreeETag("123", request)).thenReturn("123-4-100-10000-ALL");
+        MockHttpServletRequest current = new MockHttpServletRequest("GET", "/offspring/123");
+        current.addHeader(HttpHeaders.IF_NONE_MATCH, "\"123-4-100-10000-ALL\"");
+        MockHttpServletRequest stale = new MockHttpServletRequest("GET", "/offspring/123");
+        stale.addHeader(HttpHeaders.IF_NONE_MATCH, "\"123-3-100-10000-ALL\"");
+        when(samuraiService.getSamuraiTree("123", request))
+            .thenReturn(new SamuraiDTO("Ieyasu", "Tokugawa"));
+        OffspringTreeCache cache =
+            new OffspringTreeCache(DataSize.ofMegabytes(1), Duration.ofHours(1));
+        SamuraiController treeController =
+            new SamuraiController(samuraiService, null, new ObjectMapper(), cache,
+                new SingleFlight("tree", Duration.ofSeconds(1), new SimpleMeterRegistry()));
+
+        // Act
+        ResponseEntity<byte[]> notModified = treeController.getSamuraiOffspring("123",
+            request, new ServletWebRequest(current));
+        ResponseEntity<byte[]> modified = treeController.getSamuraiOffspring("123",
+            request, new ServletWebRequest(stale));
+        ResponseEntity<byte[]> cached = treeController.getSamuraiOffspring("123",
+            request, new ServletWebRequest(stale));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertEquals("\"123-4-100-10000-ALL\"", notModified.getHeaders().getETag());
+        assertEquals(HttpStatus.OK, modified.getStatusCode());
+        assertTrue(new String(modified.getBody(), StandardCharsets.UTF_8)
+            .contains("\"givenName\":\"Ieyasu\""));
+        assertSame(modified.getBody(), cached.getBody());
+        verify(samuraiService, times(1)).getSamuraiTree("123", request);
+    }
+
     @Test
     void testCreateSamurai() {
         // Arrange
@@ -93,4 +146,40 @@ class SamuraiControllerTest {
 
         verify(samuraiService, times(1)).deleteSamurai(identifier);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testStreamSamuraiOffspring() throws Exception {
+        // Arrange
+        String identifier = "789";
+        Samurai root = new Samurai();
+        root.setIdentifier(identifier);
+
+        OffspringTreeRequest request = new OffspringTreeRequest();
+        request.setMaxDepth(1);
+
+        when(samuraiService.getSamuraiByIdentifier(identifier)).thenReturn(root);
+        doAnswer(invocation -> {
+            Consumer<OffspringNodeDTO> consumer = invocation.getArgument(2);
+            consumer.accept(new OffspringNodeDTO(identifier, null, 0, null, "Ieyasu", "Tokugawa"));
+            consumer.accept(
+                new OffspringNodeDTO("790", identifier, 1, "BIOLOGICAL", "Hidetada", "Tokugawa"));
+            return null;
+        }).when(samuraiService).streamSamuraiTree(eq(root), same(request), any());
+
+        SamuraiController streamingController =
+            new SamuraiController(samuraiService, null, new ObjectMapper(), null, null);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response =
+            streamingController.streamSamuraiOffspring(identifier, request);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+
+        // Assert
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains("\"parentIdentifier\":\"789\""));
+        assertTrue(lines[1].contains("\"depth\":1"));
+    }
+}
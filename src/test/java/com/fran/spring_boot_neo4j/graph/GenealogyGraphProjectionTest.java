@@ -0,0 +1,69 @@
+package com.fran.spring_boot_neo4j.graph;
+
+import com.fran.spring_boot_neo4j.events.GenealogyChangedEvent;
+import com.fran.spring_boot_neo4j.repositories.SamuraiTraversalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.*;
+
+class GenealogyGraphProjectionTest {
+
+    @Mock
+    private SamuraiTraversalRepository samuraiTraversalRepository;
+
+    private GenealogyGraphProjection projection;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        projection = new GenealogyGraphProjection(samuraiTraversalRepository, true);
+    }
+
+    @Test
+    void testChangesArrivingDuringAReloadAreAppliedTogether() throws Exception {
+        // Arrange
+        GenealogyGraph loaded = GenealogyGraph.builder().build();
+        GenealogyGraph first = GenealogyGraph.builder().build();
+        GenealogyGraph second = GenealogyGraph.builder().build();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(samuraiTraversalRepository.loadGenealogyGraph()).thenReturn(loaded);
+        when(samuraiTraversalRepository.reloadGenealogyGraph(loaded, Set.of("a")))
+            .thenAnswer(invocation -> {
+                started.countDown();
+                release.await();
+                return first;
+            });
+        when(samuraiTraversalRepository.reloadGenealogyGraph(first, Set.of("b", "c")))
+            .thenReturn(second);
+        projection.load();
+
+        // Act
+        projection.onGenealogyChanged(GenealogyChangedEvent.of("a"));
+        started.await(5, TimeUnit.SECONDS);
+        projection.onGenealogyChanged(GenealogyChangedEvent.of("b"));
+        projection.onGenealogyChanged(GenealogyChangedEvent.of("c"));
+        GenealogyGraph whilePending = projection.current();
+        release.countDown();
+
+        // Assert
+        assertNull(whilePending);
+        verify(samuraiTraversalRepository, timeout(5000))
+            .reloadGenealogyGraph(first, Set.of("b", "c"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (projection.current() == null && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertSame(second, projection.current());
+        verify(samuraiTraversalRepository, times(2)).reloadGenealogyGraph(any(), anySet());
+    }
+}
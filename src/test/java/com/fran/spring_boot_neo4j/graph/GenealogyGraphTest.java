@@ -0,0 +1,71 @@
+package com.fran.spring_boot_neo4j.graph;
+
+import com.fran.spring_boot_neo4j.queryresults.SamuraiAncestorEdgeQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiTreeEdgeQueryResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.fran.spring_boot_neo4j.SamuraiFixtures.samurai;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GenealogyGraphTest {
+
+    @Test
+    void testFindOffspringTreeEdgesAppliesBounds() {
+        // Arrange
+        GenealogyGraph graph = GenealogyGraph.builder()
+            .addSamurai(samurai("root", "Nobunaga", "Oda"))
+            .addSamurai(samurai("b", "Nobukatsu", "Oda"))
+            .addSamurai(samurai("a", "Nobutada", "Oda"))
+            .addSamurai(samurai("c", "Hidenobu", "Oda"))
+            .addRelationship("root", "b", "BIOLOGICAL")
+            .addRelationship("root", "a", "BIOLOGICAL")
+            .addRelationship("a", "c", "BIOLOGICAL")
+            .addRelationship("root", "c", "ADOPTED")
+            .build();
+
+        // Act
+        List<SamuraiTreeEdgeQueryResult> all = graph.findOffspringTreeEdges("root", 2, null, 10);
+        List<SamuraiTreeEdgeQueryResult> limited =
+            graph.findOffspringTreeEdges("root", 1, "BIOLOGICAL", 2);
+
+        // Assert
+        assertEquals(List.of("root", "a", "b", "c", "c"),
+            all.stream().map(edge -> edge.getOffspring().getIdentifier()).toList());
+        assertNull(all.get(0).getParentIdentifier());
+        assertEquals(1L, all.get(3).getDepth());
+        assertEquals(List.of("root", "a"),
+            limited.stream().map(edge -> edge.getOffspring().getIdentifier()).toList());
+        assertEquals(List.of("b", "a"), limited.get(0).getOffspringIdentifiers());
+        assertEquals(List.of("c"), limited.get(1).getOffspringIdentifiers());
+    }
+
+    @Test
+    void testFindAncestorEdgesAfterReloadingChangedSamurai() {
+        // Arrange
+        GenealogyGraph graph = GenealogyGraph.builder()
+            .addSamurai(samurai("root", "Hidetada", "Tokugawa"))
+            .addSamurai(samurai("a", "Ieyasu", "Tokugawa"))
+            .addSamurai(samurai("b", "Hirotada", "Matsudaira"))
+            .addRelationship("a", "root", "BIOLOGICAL")
+            .addRelationship("b", "a", "BIOLOGICAL")
+            .build();
+
+        // Act
+        GenealogyGraph changed = graph.toBuilder(Set.of("b"))
+            .addSamurai(samurai("c", "Hideyoshi", "Toyotomi"))
+            .addRelationship("c", "root", "ADOPTED")
+            .build();
+        List<SamuraiAncestorEdgeQueryResult> edges = changed.findAncestorEdges("root", 2);
+
+        // Assert
+        assertEquals(3, changed.samuraiCount());
+        assertEquals(2, changed.relationshipCount());
+        assertEquals(List.of("a", "c"),
+            edges.stream().map(edge -> edge.getParent().getIdentifier()).toList());
+        assertEquals("ADOPTED", edges.get(1).getRelationshipType());
+    }
+}
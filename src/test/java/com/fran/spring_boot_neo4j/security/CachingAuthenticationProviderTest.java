@@ -0,0 +1,83 @@
+package com.fran.spring_boot_neo4j.security;
+
+import com.fran.spring_boot_neo4j.bulkhead.Bulkhead;
+import com.fran.spring_boot_neo4j.models.User;
+import com.fran.spring_boot_neo4j.services.NeoUserDetailsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class CachingAuthenticationProviderTest {
+
+    @Mock
+    private NeoUserDetailsService neoUserDetailsService;
+
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+        provider = new CachingAuthenticationProvider(neoUserDetailsService, passwordEncoder, 100,
+            Duration.ofMinutes(1), new Bulkhead("auth", 1, Duration.ZERO));
+
+        User user = new User();
+        user.setUsername("musashi");
+        user.setPassword(passwordEncoder.encode("gorin"));
+        user.setRoles("ROLE_USER,ROLE_ADMIN");
+        when(neoUserDetailsService.loadUserByUsername("musashi")).thenReturn(user);
+    }
+
+    @Test
+    void testSuccessfulAuthenticationIsCached() {
+        // Act
+        provider.authenticate(token("musashi", "gorin"));
+        Authentication result = provider.authenticate(token("musashi", "gorin"));
+
+        // Assert
+        assertTrue(result.isAuthenticated());
+        assertEquals(2, result.getAuthorities().size());
+        verify(neoUserDetailsService, times(1)).loadUserByUsername("musashi");
+    }
+
+    @Test
+    void testWrongPasswordIsNeitherAcceptedNorCached() {
+        // Arrange
+        provider.authenticate(token("musashi", "gorin"));
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class,
+            () -> provider.authenticate(token("musashi", "wrong")));
+        assertThrows(BadCredentialsException.class,
+            () -> provider.authenticate(token("musashi", "wrong")));
+        verify(neoUserDetailsService, times(3)).loadUserByUsername("musashi");
+    }
+
+    @Test
+    void testInvalidateForcesFullVerification() {
+        // Act
+        provider.authenticate(token("musashi", "gorin"));
+        provider.invalidate("musashi");
+        provider.authenticate(token("musashi", "gorin"));
+
+        // Assert
+        verify(neoUserDetailsService, times(2)).loadUserByUsername("musashi");
+    }
+
+    private static UsernamePasswordAuthenticationToken token(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+}
@@ -0,0 +1,137 @@
+package com.fran.spring_boot_neo4j.services;
+
+import com.fran.spring_boot_neo4j.cache.KinshipCache;
+import com.fran.spring_boot_neo4j.events.GenealogyChangedEvent;
+import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.objects.KinshipPathDTO;
+import com.fran.spring_boot_neo4j.objects.KinshipPathDTO.Direction;
+import com.fran.spring_boot_neo4j.objects.KinshipPathDTO.Step;
+import com.fran.spring_boot_neo4j.repositories.SamuraiTraversalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class KinshipServiceTest {
+
+    @Mock
+    private SamuraiService samuraiService;
+
+    @Mock
+    private SamuraiTraversalRepository samuraiTraversalRepository;
+
+    private KinshipCache kinshipCache;
+
+    private KinshipService kinshipService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        kinshipCache = new KinshipCache(100, Duration.ofMinutes(1));
+        kinshipService = new KinshipService(samuraiService, samuraiTraversalRepository,
+            kinshipCache);
+        when(samuraiService.getSamuraiByIdentifier(anyString())).thenAnswer(invocation -> {
+            Samurai samurai = new Samurai();
+            samurai.setIdentifier(invocation.getArgument(0));
+            return samurai;
+        });
+    }
+
+    @Test
+    void testGetKinshipPathIsCachedUntilGenealogyChanges() {
+        // Arrange
+        KinshipPathDTO path = new KinshipPathDTO("a", "b");
+        path.addStep(new Step("a", "Nobutada", "Oda", null, null));
+        path.addStep(new Step("p", "Nobunaga", "Oda", Direction.UP, "BIOLOGICAL"));
+        path.addStep(new Step("b", "Nobukatsu", "Oda", Direction.DOWN, "BIOLOGICAL"));
+        when(samuraiTraversalRepository.findShortestPath(eq("a"), eq("b"), anyInt(), any()))
+            .thenReturn(Optional.of(path));
+
+        // Act
+        kinshipService.getKinshipPath("a", "b");
+        KinshipPathDTO result = kinshipService.getKinshipPath("a", "b");
+        kinshipCache.onGenealogyChanged(GenealogyChangedEvent.of("c"));
+        kinshipService.getKinshipPath("a", "b");
+
+        // Assert
+        assertEquals(2, result.getDistance());
+        verify(samuraiTraversalRepository, times(2))
+            .findShortestPath(eq("a"), eq("b"), anyInt(), any());
+    }
+
+    @Test
+    void testGetKinshipPathServesTheReversedPairFromTheCache() {
+        // Arrange
+        KinshipPathDTO path = new KinshipPathDTO("b", "a");
+        path.addStep(new Step("b", "Nobukatsu", "Oda", null, null));
+        path.addStep(new Step("p", "Nobunaga", "Oda", Direction.UP, "BIOLOGICAL"));
+        path.addStep(new Step("a", "Hidekatsu", "Hashiba", Direction.DOWN, "ADOPTED"));
+        when(samuraiTraversalRepository.findShortestPath(eq("b"), eq("a"), anyInt(), any()))
+            .thenReturn(Optional.of(path));
+
+        // Act
+        KinshipPathDTO searched = kinshipService.getKinshipPath("b", "a");
+        KinshipPathDTO reversed = kinshipService.getKinshipPath("a", "b");
+
+        // Assert
+        assertSame(path, searched);
+        assertEquals("a", reversed.getFromIdentifier());
+        assertEquals(List.of("a", "p", "b"),
+            reversed.getSteps().stream().map(Step::getIdentifier).toList());
+        assertEquals(Arrays.asList(null, Direction.UP, Direction.DOWN),
+            reversed.getSteps().stream().map(Step::getDirection).toList());
+        assertEquals(Arrays.asList(null, "ADOPTED", "BIOLOGICAL"),
+            reversed.getSteps().stream().map(Step::getRelationshipType).toList());
+        verify(samuraiTraversalRepository, times(1))
+            .findShortestPath(anyString(), anyString(), anyInt(), any());
+    }
+
+    @Test
+    void testGetKinshipPathDoesNotKeepPathSearchedDuringChange() {
+        // Arrange
+        when(samuraiTraversalRepository.findShortestPath(eq("a"), eq("b"), anyInt(), any()))
+            .thenAnswer(invocation -> {
+                kinshipCache.onGenealogyChanged(GenealogyChangedEvent.of("c"));
+                return Optional.empty();
+            });
+
+        // Act
+        assertThrows(ResponseStatusException.class, () -> kinshipService.getKinshipPath("a", "b"));
+        assertThrows(ResponseStatusException.class, () -> kinshipService.getKinshipPath("a", "b"));
+
+        // Assert
+        verify(samuraiTraversalRepository, times(2))
+            .findShortestPath(eq("a"), eq("b"), anyInt(), any());
+    }
+
+    @Test
+    void testGetKinshipPathMapsMissingPathAndTimeout() {
+        // Arrange
+        when(samuraiTraversalRepository.findShortestPath(eq("a"), eq("b"), anyInt(), any()))
+            .thenReturn(Optional.empty());
+        when(samuraiTraversalRepository.findShortestPath(eq("a"), eq("c"), anyInt(), any()))
+            .thenThrow(new QueryTimeoutException("timed out"));
+
+        // Act & Assert
+        ResponseStatusException notFound = assertThrows(ResponseStatusException.class,
+            () -> kinshipService.getKinshipPath("a", "b"));
+        ResponseStatusException timeout = assertThrows(ResponseStatusException.class,
+            () -> kinshipService.getKinshipPath("a", "c"));
+        assertEquals(HttpStatus.NOT_FOUND, notFound.getStatusCode());
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, timeout.getStatusCode());
+        assertEquals(0, kinshipService.getKinshipPath("a", "a").getDistance());
+    }
+}
@@ -0,0 +1,92 @@
+package com.fran.spring_boot_neo4j.services;
+
+import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiTreeEdgeQueryResult;
+import com.fran.spring_boot_neo4j.repositories.SamuraiRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static com.fran.spring_boot_neo4j.SamuraiFixtures.edge;
+import static com.fran.spring_boot_neo4j.SamuraiFixtures.samurai;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.*;
+
+class OffspringTreeLoaderTest {
+
+    @Mock
+    private SamuraiRepository samuraiRepository;
+
+    private OffspringTreeLoader parallelLoader;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // One parent per query, so every frontier of more than one samurai is split
+        parallelLoader = new OffspringTreeLoader(samuraiRepository, 1, 2);
+
+        // root -> a, b; a -> c; b -> c; c -> root
+        Samurai root = samurai("root");
+        Samurai c = samurai("c");
+        when(samuraiRepository.findOffspringEdgesByParentIdentifiers(List.of("root"), null))
+            .thenReturn(List.of(edge("root", samurai("b"), "BIOLOGICAL", "c"),
+                edge("root", samurai("a"), "BIOLOGICAL", "c")));
+        when(samuraiRepository.findOffspringEdgesByParentIdentifiers(List.of("a"), null))
+            .thenReturn(List.of(edge("a", c, "BIOLOGICAL", "root")));
+        when(samuraiRepository.findOffspringEdgesByParentIdentifiers(List.of("b"), null))
+            .thenReturn(List.of(edge("b", c, "BIOLOGICAL", "root")));
+        when(samuraiRepository.findOffspringEdgesByParentIdentifiers(List.of("c"), null))
+            .thenReturn(List.of(edge("c", root, "BIOLOGICAL", "a", "b")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelLoader.destroy();
+    }
+
+    @Test
+    void testFindOffspringTreeEdgesMatchesSequentialLoadOnCycles() {
+        // Arrange
+        OffspringTreeLoader sequentialLoader = new OffspringTreeLoader(samuraiRepository, 1, 1);
+
+        // Act
+        List<SamuraiTreeEdgeQueryResult> parallel =
+            parallelLoader.findOffspringTreeEdges(samurai("root"), 10, null, 10);
+        List<SamuraiTreeEdgeQueryResult> sequential =
+            sequentialLoader.findOffspringTreeEdges(samurai("root"), 10, null, 10);
+
+        // Assert
+        assertEquals(List.of("null>root", "c>root", "root>a", "root>b", "a>c", "b>c"),
+            parallel.stream().map(OffspringTreeLoaderTest::describe).toList());
+        assertEquals(parallel.stream().map(OffspringTreeLoaderTest::describe).toList(),
+            sequential.stream().map(OffspringTreeLoaderTest::describe).toList());
+        assertEquals(List.of(0L, 0L, 1L, 1L, 2L, 2L),
+            parallel.stream().map(SamuraiTreeEdgeQueryResult::getDepth).toList());
+        assertEquals(List.of("b", "a"), parallel.get(0).getOffspringIdentifiers());
+        verify(samuraiRepository, times(2))
+            .findOffspringEdgesByParentIdentifiers(List.of("c"), null);
+    }
+
+    @Test
+    void testFindOffspringTreeEdgesStopsAtLimit() {
+        // Act
+        List<SamuraiTreeEdgeQueryResult> edges =
+            parallelLoader.findOffspringTreeEdges(samurai("root"), 10, null, 2);
+
+        // Assert
+        assertEquals(List.of("null>root", "root>a"),
+            edges.stream().map(OffspringTreeLoaderTest::describe).toList());
+        assertNull(edges.get(0).getParentIdentifier());
+        verify(samuraiRepository, never())
+            .findOffspringEdgesByParentIdentifiers(List.of("c"), null);
+    }
+
+    private static String describe(SamuraiTreeEdgeQueryResult edge) {
+        return edge.getParentIdentifier() + ">" + edge.getOffspring().getIdentifier();
+    }
+}
@@ -0,0 +1,99 @@
+package com.fran.spring_boot_neo4j.services;
+
+import com.fran.spring_boot_neo4j.objects.OffspringNodeDTO;
+import com.fran.spring_boot_neo4j.repositories.ReactiveSamuraiRepository;
+import com.fran.spring_boot_neo4j.requests.OffspringTreeRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.fran.spring_boot_neo4j.SamuraiFixtures.edge;
+import static com.fran.spring_boot_neo4j.SamuraiFixtures.samurai;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class ReactiveSamuraiServiceTest {
+
+    @Mock
+    private ReactiveSamuraiRepository reactiveSamuraiRepository;
+
+    @InjectMocks
+    private ReactiveSamuraiService reactiveSamuraiService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testStreamSamuraiTreeWalksGenerationsAndStopsOnCycles() {
+        // Arrange
+        when(reactiveSamuraiRepository.findSamuraiByIdentifier("root"))
+            .thenReturn(Mono.just(samurai("root", "Motonari", "Mori")));
+        when(reactiveSamuraiRepository.findOffspringEdgesByParentIdentifiers(List.of("root"), null))
+            .thenReturn(Flux.just(edge("root", samurai("a", "Takamoto", "Mori"), "BIOLOGICAL"),
+                edge("root", samurai("b", "Motoharu", "Mori"), "BIOLOGICAL")));
+        when(reactiveSamuraiRepository.findOffspringEdgesByParentIdentifiers(List.of("a", "b"),
+            null))
+            .thenReturn(Flux.just(edge("a", samurai("c", "Terumoto", "Mori"), "BIOLOGICAL"),
+                edge("b", samurai("root", "Motonari", "Mori"), "BIOLOGICAL")));
+        when(reactiveSamuraiRepository.findOffspringEdgesByParentIdentifiers(List.of("c"), null))
+            .thenReturn(Flux.empty());
+
+        // Act
+        List<OffspringNodeDTO> nodes =
+            reactiveSamuraiService.streamSamuraiTree("root", new OffspringTreeRequest())
+                .collectList().block();
+
+        // Assert
+        assertEquals(List.of("a", "b", "c"),
+            nodes.stream().map(OffspringNodeDTO::getIdentifier).toList());
+        assertEquals(List.of(1, 1, 2), nodes.stream().map(OffspringNodeDTO::getDepth).toList());
+        verify(reactiveSamuraiRepository, times(3))
+            .findOffspringEdgesByParentIdentifiers(anyList(), isNull());
+    }
+
+    @Test
+    void testStreamSamuraiTreeAppliesTheRequestedBounds() {
+        // Arrange
+        OffspringTreeRequest request = new OffspringTreeRequest();
+        request.setMaxDepth(1);
+        request.setMaxNodes(1);
+        request.setRelationshipType("adopted");
+        when(reactiveSamuraiRepository.findSamuraiByIdentifier("root"))
+            .thenReturn(Mono.just(samurai("root", "Motonari", "Mori")));
+        when(reactiveSamuraiRepository.findOffspringEdgesByParentIdentifiers(List.of("root"),
+            "ADOPTED"))
+            .thenReturn(Flux.just(edge("root", samurai("a", "Takakage", "Kobayakawa"), "ADOPTED"),
+                edge("root", samurai("b", "Motoharu", "Kikkawa"), "ADOPTED")));
+
+        // Act
+        List<OffspringNodeDTO> nodes =
+            reactiveSamuraiService.streamSamuraiTree("root", request).collectList().block();
+
+        // Assert
+        assertEquals(List.of("a"), nodes.stream().map(OffspringNodeDTO::getIdentifier).toList());
+        verify(reactiveSamuraiRepository, times(1))
+            .findOffspringEdgesByParentIdentifiers(anyList(), any());
+    }
+
+    @Test
+    void testGetSamuraiByIdentifierFailsWithNotFound() {
+        // Arrange
+        when(reactiveSamuraiRepository.findSamuraiByIdentifier("missing")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> reactiveSamuraiService.getSamuraiByIdentifier("missing").block());
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+}
@@ -0,0 +1,104 @@
+package com.fran.spring_boot_neo4j.services;
+
+import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.repositories.SamuraiRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static com.fran.spring_boot_neo4j.SamuraiFixtures.samurai;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class SamuraiBatchLoaderTest {
+
+    @Mock
+    private SamuraiRepository samuraiRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testConcurrentLookupsShareOneQuery() throws Exception {
+        // Arrange
+        // A full batch is sent at once and ends the wait of its first lookup, so the long window
+        // is never waited for
+        SamuraiBatchLoader loader =
+            new SamuraiBatchLoader(samuraiRepository, Duration.ofMinutes(1), 3, meterRegistry);
+        Samurai nobunaga = samurai("nobunaga");
+        Samurai ieyasu = samurai("ieyasu");
+        when(samuraiRepository.findAllByIdentifierIn(Set.of("nobunaga", "ieyasu", "missing")))
+            .thenReturn(List.of(ieyasu, nobunaga));
+
+        // Act
+        CompletableFuture<Optional<Samurai>> first =
+            CompletableFuture.supplyAsync(() -> loader.findSamuraiByIdentifier("nobunaga"));
+        CompletableFuture<Optional<Samurai>> second =
+            CompletableFuture.supplyAsync(() -> loader.findSamuraiByIdentifier("missing"));
+        Optional<Samurai> third = loader.findSamuraiByIdentifier("ieyasu");
+
+        // Assert
+        assertSame(nobunaga, first.get().orElseThrow());
+        assertTrue(second.get().isEmpty());
+        assertSame(ieyasu, third.orElseThrow());
+        verify(samuraiRepository, times(1)).findAllByIdentifierIn(any());
+        verify(samuraiRepository, never()).findSamuraiByIdentifier(any());
+        assertEquals(3.0, meterRegistry.get("samurai.lookup.batch.size").summary().max());
+        assertEquals(3, meterRegistry.get("samurai.lookup.latency").timer().count());
+    }
+
+    @Test
+    void testFailedQueryFailsEveryLookupOfItsBatch() {
+        // Arrange
+        SamuraiBatchLoader loader =
+            new SamuraiBatchLoader(samuraiRepository, Duration.ofMillis(50), 100, meterRegistry);
+        IllegalStateException failure = new IllegalStateException("Neo4j unavailable");
+        when(samuraiRepository.findAllByIdentifierIn(any())).thenThrow(failure);
+
+        // Act
+        CompletableFuture<Optional<Samurai>> first =
+            CompletableFuture.supplyAsync(() -> loader.findSamuraiByIdentifier("nobunaga"));
+        CompletableFuture<Optional<Samurai>> second =
+            CompletableFuture.supplyAsync(() -> loader.findSamuraiByIdentifier("ieyasu"));
+
+        // Assert
+        assertSame(failure, assertThrows(ExecutionException.class, first::get).getCause());
+        assertSame(failure, assertThrows(ExecutionException.class, second::get).getCause());
+    }
+
+    @Test
+    void testErrorThrownByQueryStillCompletesEveryLookup() {
+        // Arrange
+        SamuraiBatchLoader loader =
+            new SamuraiBatchLoader(samuraiRepository, Duration.ofMinutes(1), 2, meterRegistry);
+        StackOverflowError failure = new StackOverflowError();
+        when(samuraiRepository.findAllByIdentifierIn(any())).thenThrow(failure);
+
+        // Act
+        CompletableFuture<Optional<Samurai>> first =
+            CompletableFuture.supplyAsync(() -> loader.findSamuraiByIdentifier("nobunaga"));
+        StackOverflowError thrown = assertThrows(StackOverflowError.class,
+            () -> loader.findSamuraiByIdentifier("ieyasu"));
+
+        // Assert
+        assertSame(failure, thrown);
+        assertSame(failure, assertThrows(ExecutionException.class, first::get).getCause());
+    }
+}
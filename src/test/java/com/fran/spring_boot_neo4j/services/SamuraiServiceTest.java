@@ -0,0 +1,538 @@
+package com.fran.spring_boot_neo4j.services;
+
+import com.fran.spring_boot_neo4j.cache.SamuraiCache;
+import com.fran.spring_boot_neo4j.events.GenealogyChangedEvent;
+import com.fran.spring_boot_neo4j.graph.GenealogyGraph;
+import com.fran.spring_boot_neo4j.graph.GenealogyGraphProjection;
+import com.fran.spring_boot_neo4j.models.Samurai;
+import com.fran.spring_boot_neo4j.objects.AncestorDTO;
+import com.fran.spring_boot_neo4j.objects.BatchRelationshipResponseDTO;
+import com.fran.spring_boot_neo4j.objects.BulkImportResponseDTO;
+import com.fran.spring_boot_neo4j.objects.BulkImportResultDTO;
+import com.fran.spring_boot_neo4j.objects.BulkImportResultDTO.Status;
+import com.fran.spring_boot_neo4j.objects.FlatSamuraiTreeDTO;
+import com.fran.spring_boot_neo4j.objects.SamuraiDTO;
+import com.fran.spring_boot_neo4j.objects.SamuraiMultiGetDTO;
+import com.fran.spring_boot_neo4j.objects.SamuraiPageDTO;
+import com.fran.spring_boot_neo4j.objects.SubtreeStatsDTO;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiCreateQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiDepthQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiImportQueryResult;
+import com.fran.spring_boot_neo4j.queryresults.SamuraiRelationshipQueryResult;
+import com.fran.spring_boot_neo4j.repositories.SamuraiRepository;
+import com.fran.spring_boot_neo4j.repositories.SamuraiTraversalRepository;
+import com.fran.spring_boot_neo4j.requests.AddRelationshipRequest;
+import com.fran.spring_boot_neo4j.requests.CreateSamuraiRequest;
+import com.fran.spring_boot_neo4j.requests.ListSamuraiRequest;
+import com.fran.spring_boot_neo4j.requests.OffspringTreeRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.fran.spring_boot_neo4j.SamuraiFixtures.ancestorEdge;
+import static com.fran.spring_boot_neo4j.SamuraiFixtures.edge;
+import static com.fran.spring_boot_neo4j.SamuraiFixtures.samurai;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class SamuraiServiceTest {
+
+    @Mock
+    private SamuraiRepository samuraiRepository;
+
+    @Mock
+    private SamuraiTraversalRepository samuraiTraversalRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private GenealogyGraphProjection genealogyGraphProjection;
+
+    private SamuraiService samuraiService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        SamuraiCache samuraiCache = new SamuraiCache(100, Duration.ofMinutes(1));
+        genealogyGraphProjection = new GenealogyGraphProjection(samuraiTraversalRepository, true);
+        samuraiService = new SamuraiService(samuraiRepository, samuraiTraversalRepository,
+            samuraiCache,
+            new SamuraiBatchLoader(samuraiRepository, Duration.ZERO, 100, meterRegistry),
+            genealogyGraphProjection, new OffspringTreeLoader(samuraiRepository, 1000, 1),
+            event -> samuraiCache.onGenealogyChanged((GenealogyChangedEvent) event),
+            meterRegistry);
+    }
+
+    @Test
+    void testGetSamuraiByIdentifierIsCachedUntilDelete() {
+        // Arrange
+        Samurai samurai = samurai("123", "Nobunaga", "Oda");
+        when(samuraiRepository.findSamuraiByIdentifier("123")).thenReturn(Optional.of(samurai));
+
+        // Act
+        samuraiService.getSamuraiByIdentifier("123");
+        samuraiService.getSamuraiByIdentifier("123");
+        samuraiService.deleteSamurai("123");
+        samuraiService.getSamuraiByIdentifier("123");
+
+        // Assert
+        verify(samuraiRepository, times(2)).findSamuraiByIdentifier("123");
+        assertEquals(2, samuraiService.getCacheStats().getHitCount());
+    }
+
+    @Test
+    void testGetSamuraiByIdentifiersKeepsOrderAndReportsMissing() {
+        // Arrange
+        when(samuraiRepository.findSamuraiByIdentifier("cached"))
+            .thenReturn(Optional.of(samurai("cached", "Shingen", "Takeda")));
+        when(samuraiRepository.findAllByIdentifierIn(List.of("loaded", "missing")))
+            .thenReturn(List.of(samurai("loaded", "Kenshin", "Uesugi")));
+        samuraiService.getSamuraiByIdentifier("cached");
+
+        // Act
+        SamuraiMultiGetDTO result = samuraiService.getSamuraiByIdentifiers(
+            List.of("loaded", "cached", "missing", "loaded"));
+
+        // Assert
+        assertEquals(List.of("loaded", "cached"),
+            result.getItems().stream().map(SamuraiDTO::getIdentifier).toList());
+        assertEquals(List.of("missing"), result.getMissingIdentifiers());
+        verify(samuraiRepository, times(1)).findAllByIdentifierIn(any());
+        assertEquals(1, samuraiService.getCacheStats().getHitCount());
+    }
+
+    @Test
+    void testCreateSamuraiMapsConflictAndMissingParent() {
+        // Arrange
+        SamuraiCreateQueryResult conflict = new SamuraiCreateQueryResult();
+        conflict.setSamurai(samurai("existing", "Shingen", "Takeda"));
+        conflict.setCreated(false);
+        conflict.setParentFound(true);
+        SamuraiCreateQueryResult missingParent = new SamuraiCreateQueryResult();
+        missingParent.setSamurai(samurai("existing", "Shingen", "Takeda"));
+        missingParent.setCreated(false);
+        missingParent.setParentFound(false);
+
+        when(samuraiRepository.createSamurai(eq("Shingen"), eq("Takeda"), anyMap(), isNull(),
+            isNull())).thenReturn(conflict);
+        when(samuraiRepository.createSamurai(eq("Shingen"), eq("Takeda"), anyMap(),
+            eq("missing"), eq("BIOLOGICAL"))).thenReturn(missingParent);
+
+        CreateSamuraiRequest child = new CreateSamuraiRequest("Shingen", "Takeda");
+        child.setParentIdentifier("missing");
+
+        // Act & Assert
+        ResponseStatusException conflictException = assertThrows(ResponseStatusException.class,
+            () -> samuraiService.createSamurai(new CreateSamuraiRequest("Shingen", "Takeda")));
+        ResponseStatusException notFoundException = assertThrows(ResponseStatusException.class,
+            () -> samuraiService.createSamurai(child));
+        assertEquals(HttpStatus.CONFLICT, conflictException.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, notFoundException.getStatusCode());
+    }
+
+    @Test
+    void testCreateSamuraiRejectsMissingNames() {
+        // Act & Assert
+        ResponseStatusException missingGivenName = assertThrows(ResponseStatusException.class,
+            () -> samuraiService.createSamurai(new CreateSamuraiRequest(null, "Takeda")));
+        ResponseStatusException emptyFamilyName = assertThrows(ResponseStatusException.class,
+            () -> samuraiService.createSamurai(new CreateSamuraiRequest("Shingen", "")));
+        assertEquals(HttpStatus.BAD_REQUEST, missingGivenName.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, emptyFamilyName.getStatusCode());
+        verifyNoInteractions(samuraiRepository);
+    }
+
+    @Test
+    void testGetSamuraiTreeBuildsTreeFromEdges() {
+        // Arrange
+        Samurai root = samurai("root", "Ieyasu", "Tokugawa");
+        when(samuraiRepository.findSamuraiByIdentifier("root")).thenReturn(Optional.of(root));
+        when(samuraiRepository.findOffspringEdgesByParentIdentifiers(List.of("root"), null))
+            .thenReturn(List.of(
+                edge("root", samurai("a", "Hidetada", "Tokugawa"), "BIOLOGICAL", "c"),
+                edge("root", samurai("b", "Yoshinao", "Tokugawa"), "ADOPTED")));
+        when(samuraiRepository.findOffspringEdgesByParentIdentifiers(List.of("a", "b"), null))
+            .thenReturn(List.of(edge("a", samurai("c", "Iemitsu", "Tokugawa"), "BIOLOGICAL")));
+
+        // Act
+        SamuraiDTO tree = samuraiService.getSamuraiTree("root");
+
+        // Assert
+        assertEquals(2, tree.getOffspring().size());
+        assertEquals("a", tree.getOffspring().get(0).getIdentifier());
+        assertEquals("c", tree.getOffspring().get(0).getOffspring().get(0).getIdentifier());
+        assertEquals("ADOPTED", tree.getOffspring().get(1).getRelationshipTypeWithParent());
+
+        verify(samuraiRepository, times(3)).findOffspringEdgesByParentIdentifiers(anyList(),
+            isNull());
+        verify(samuraiRepository, never()).findAllOffspringByIdentifierWithType(anyString());
+        assertEquals(4, meterRegistry.summary("samurai.tree.nodes").max());
+        assertEquals(2, meterRegistry.summary("samurai.tree.depth").max());
+        assertNull(tree.getTruncated());
+        assertNull(tree.getOffspring().get(0).getContinuation());
+    }
+
+    @Test
+    void testGetSamuraiTreeStopsOnCycles() {
+        // Arrange
+        Samurai root = samurai("root", "Masamune", "Date");
+        when(samuraiRepository.findSamuraiByIdentifier("root")).thenReturn(Optional.of(root));
+        when(samuraiRepository.findOffspringEdgesByParentIdentifiers(List.of("root"), null))
+            .thenReturn(List.of(edge("root", samurai("a", "Tadamune", "Date"), "BIOLOGICAL",
+                "root")));
+        when(samuraiRepository.findOffspringEdgesByParentIdentifiers(List.of("a"), null))
+            .thenReturn(List.of(edge("a", root, "ADOPTED", "a")));
+
+        // Act
+        SamuraiDTO tree = samuraiService.getSamuraiTree("root");
+
+        // Assert
+        assertEquals(1, tree.getOffspring().size());
+        assertEquals(0, tree.getOffspring().get(0).getOffspring().size());
+    }
+
+    @Test
+    void testGetSamuraiTreeMarksBranchesCutByBounds() {
+        // Arrange
+        Samurai root = samurai("root", "Nobunaga", "Oda");
+        OffspringTreeRequest request = new OffspringTreeRequest();
+        request.setMaxDepth(1);
+        request.setMaxNodes(1);
+        request.setRelationshipType("adopted");
+        when(samuraiRepository.findSamuraiByIdentifier("root")).thenReturn(Optional.of(root));
+        when(samuraiRepository.findOffspringEdgesByParentIdentifiers(List.of("root"),
+            "ADOPTED")).thenReturn(List.of(
+                edge("root", samurai("a", "Nobutada", "Oda"), "ADOPTED", "c"),
+                edge("root", samurai("b", "Nobukatsu", "Oda"), "ADOPTED")));
+
+        // Act
+        SamuraiDTO tree = samuraiService.getSamuraiTree("root", request);
+
+        // Assert
+        assertEquals(1, tree.getOffspring().size());
+        assertEquals(true, tree.getTruncated());
+        assertEquals("/api/v1/samurai/offspring/root?maxDepth=1&maxNodes=1"
+            + "&relationshipType=ADOPTED", tree.getContinuation());
+        assertEquals("/api/v1/samurai/offspring/a?maxDepth=1&maxNodes=1"
+            + "&relationshipType=ADOPTED", tree.getOffspring().get(0).getContinuation());
+    }
+
+    @Test
+    void testGetFlatSamuraiTreeReferencesParentsByIndex() {
+        // Arrange
+        Samurai root = samurai("root", "Motonari", "Mori");
+        Samurai c = samurai("c", "Terumoto", "Mori");
+        when(samuraiRepository.findSamuraiByIdentifier("root")).thenReturn(Optional.of(root));
+        when(samuraiRepository.findOffspringEdgesByParentIdentifiers(List.of("root"), null))
+            .thenReturn(List.of(
+                edge("root", samurai("a", "Takamoto", "Mori"), "BIOLOGICAL", "c"),
+                edge("root", samurai("b", "Motoharu", "Kikkawa"), "ADOPTED", "c")));
+        when(samuraiRepository.findOffspringEdgesByParentIdentifiers(List.of("a", "b"), null))
+            .thenReturn(List.of(
+                edge("a", c, "BIOLOGICAL", "d"),
+                edge("b", c, "ADOPTED", "d")));
+
+        // Act
+        FlatSamuraiTreeDTO tree =
+            samuraiService.getFlatSamuraiTree("root", new OffspringTreeRequest());
+
+        // Assert
+        assertEquals(List.of("root", "a", "c", "b"),
+            tree.getNodes().stream().map(FlatSamuraiTreeDTO.Node::getIdentifier).toList());
+        assertArrayEquals(new int[] {-1, 0, 1, 0}, tree.getParents());
+        assertEquals(List.of("BIOLOGICAL", "ADOPTED"), tree.getRelationshipTypes());
+        assertArrayEquals(new int[] {-1, 0, 0, 1}, tree.getRelationships());
+        assertArrayEquals(new int[] {2}, tree.getContinued());
+        assertEquals("/api/v1/samurai/offspring/{identifier}?maxDepth=100&maxNodes=10000"
+            + "&format=flat", tree.getContinuation());
+        assertNull(tree.getTruncated());
+    }
+
+    @Test
+    void testGetSamuraiTreeRejectsInvalidBounds() {
+        // Arrange
+        OffspringTreeRequest request = new OffspringTreeRequest();
+        request.setMaxNodes(10001);
+
+        // Act & Assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> samuraiService.getSamuraiTree("root", request));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verify(samuraiRepository, never()).findOffspringEdgesByParentIdentifiers(anyList(), any());
+    }
+
+    @Test
+    void testGetSamuraiTreeIsServedFromGenealogyGraphOnceLoaded() {
+        // Arrange
+        Samurai root = samurai("root", "Ieyasu", "Tokugawa");
+        when(samuraiRepository.findSamuraiByIdentifier("root")).thenReturn(Optional.of(root));
+        when(samuraiTraversalRepository.loadGenealogyGraph()).thenReturn(GenealogyGraph.builder()
+            .addSamurai(root)
+            .addSamurai(samurai("a", "Hidetada", "Tokugawa"))
+            .addRelationship("root", "a", "BIOLOGICAL")
+            .build());
+        genealogyGraphProjection.load();
+
+        // Act
+        SamuraiDTO tree = samuraiService.getSamuraiTree("root");
+
+        // Assert
+        assertEquals(1, tree.getOffspring().size());
+        assertEquals("Hidetada", tree.getOffspring().get(0).getGivenName());
+        verify(samuraiRepository, never()).findOffspringEdgesByParentIdentifiers(anyList(), any());
+    }
+
+    @Test
+    void testGetSamuraiAncestorsDeduplicatesMergedLines() {
+        // Arrange
+        Samurai root = samurai("root", "Hidetada", "Tokugawa");
+        when(samuraiRepository.findSamuraiByIdentifier("root")).thenReturn(Optional.of(root));
+        when(samuraiRepository.findAncestorEdgesByIdentifier("root", 20)).thenReturn(List.of(
+            ancestorEdge("root", samurai("a", "Ieyasu", "Tokugawa"), "BIOLOGICAL"),
+            ancestorEdge("root", samurai("b", "Hideyoshi", "Toyotomi"), "ADOPTED"),
+            ancestorEdge("a", samurai("c", "Hirotada", "Matsudaira"), "BIOLOGICAL"),
+            ancestorEdge("b", samurai("c", "Hirotada", "Matsudaira"), "ADOPTED"),
+            ancestorEdge("c", samurai("d", "Kiyoyasu", "Matsudaira"), "BIOLOGICAL")));
+
+        // Act
+        SamuraiDTO tree = samuraiService.getSamuraiAncestorTree("root", null);
+        List<AncestorDTO> ancestors = samuraiService.getSamuraiAncestorList("root", null);
+
+        // Assert
+        assertEquals(2, tree.getParents().size());
+        assertEquals("ADOPTED", tree.getParents().get(1).getRelationshipTypeWithChild());
+        assertEquals(1, tree.getParents().get(0).getParents().get(0).getParents().size());
+        assertEquals(0, tree.getParents().get(1).getParents().get(0).getParents().size());
+
+        assertEquals(List.of("a", "b", "c", "d"),
+            ancestors.stream().map(AncestorDTO::getIdentifier).toList());
+        assertEquals(List.of(1, 1, 2, 3), ancestors.stream().map(AncestorDTO::getDepth).toList());
+        assertEquals(2, ancestors.get(2).getChildren().size());
+    }
+
+    @Test
+    void testGetSamuraiAncestorsRejectsInvalidDepth() {
+        // Arrange
+        when(samuraiRepository.findSamuraiByIdentifier("root"))
+            .thenReturn(Optional.of(samurai("root", "Hidetada", "Tokugawa")));
+
+        // Act & Assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> samuraiService.getSamuraiAncestorTree("root", 0));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verify(samuraiRepository, never()).findAncestorEdgesByIdentifier(anyString(), anyInt());
+    }
+
+    @Test
+    void testListSamuraiContinuesAfterCursor() {
+        // Arrange
+        when(samuraiRepository.findPage(eq(""), eq("Date"), isNull(), isNull(), isNull(),
+            eq(LocalDate.of(1560, 1, 1)), eq(LocalDate.of(1601, 1, 1)), isNull(), isNull(),
+            eq(3))).thenReturn(List.of(samurai("a", "Masamune", "Date"),
+            samurai("b", "Tadamune", "Date"), samurai("c", "Hidemune", "Date")));
+        when(samuraiRepository.findPage(eq("b"), eq("Date"), isNull(), isNull(), isNull(),
+            any(), any(), isNull(), isNull(), eq(3)))
+            .thenReturn(List.of(samurai("c", "Hidemune", "Date")));
+
+        ListSamuraiRequest request = new ListSamuraiRequest();
+        request.setFamilyName("Date");
+        request.setBornFrom(1560);
+        request.setBornTo(1600);
+        request.setLimit(2);
+
+        // Act
+        SamuraiPageDTO firstPage = samuraiService.listSamurai(request);
+        request.setCursor(firstPage.getNextCursor());
+        SamuraiPageDTO lastPage = samuraiService.listSamurai(request);
+
+        // Assert
+        assertEquals(2, firstPage.getItems().size());
+        assertEquals("c", lastPage.getItems().get(0).getIdentifier());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void testListSamuraiRejectsYearOutsideDateRange() {
+        // Arrange
+        ListSamuraiRequest request = new ListSamuraiRequest();
+        request.setDiedTo(2_000_000_000);
+
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> samuraiService.listSamurai(request));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verify(samuraiRepository, never()).findPage(any(), any(), any(), any(), any(), any(),
+            any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testImportSamuraiReportsPerRecordResults() {
+        // Arrange
+        when(samuraiRepository.importSamurai(anyList())).thenAnswer(invocation -> {
+            List<Map<String, Object>> rows = invocation.getArgument(0);
+            return rows.stream().map(row -> {
+                SamuraiImportQueryResult result = new SamuraiImportQueryResult();
+                result.setPosition(((Integer) row.get("position")).longValue());
+                result.setIdentifier((String) ((Map<?, ?>) row.get("properties")).get("identifier"));
+                result.setStatus("missing".equals(row.get("parentIdentifier"))
+                    ? "PARENT_NOT_FOUND" : "CREATED");
+                return result;
+            }).toList();
+        });
+
+        CreateSamuraiRequest orphan = new CreateSamuraiRequest("Yukimura", "Sanada");
+        orphan.setParentIdentifier("missing");
+        CreateSamuraiRequest adopted = new CreateSamuraiRequest("Hideyori", "Toyotomi");
+        adopted.setRelationshipType("unknown");
+        List<CreateSamuraiRequest> requests = List.of(
+            new CreateSamuraiRequest("Kenshin", "Uesugi"),
+            new CreateSamuraiRequest("Kenshin", "Uesugi"),
+            new CreateSamuraiRequest(null, "Takeda"),
+            orphan,
+            adopted);
+
+        // Act
+        BulkImportResponseDTO response = samuraiService.importSamurai(requests.iterator());
+
+        // Assert
+        List<Status> statuses = response.getResults().stream()
+            .map(BulkImportResultDTO::getStatus).toList();
+        assertEquals(List.of(Status.CREATED, Status.CONFLICT, Status.INVALID,
+            Status.PARENT_NOT_FOUND, Status.INVALID), statuses);
+        assertEquals(1, response.getCreated());
+        verify(samuraiRepository, times(1)).importSamurai(anyList());
+    }
+
+    @Test
+    void testAddParentChildRelationshipsReportsUnmatchedIdentifiers() {
+        // Arrange
+        when(samuraiRepository.createParentChildRelationships(anyList())).thenAnswer(invocation -> {
+            List<Map<String, Object>> rows = invocation.getArgument(0);
+            return rows.stream().map(row -> {
+                SamuraiRelationshipQueryResult result = new SamuraiRelationshipQueryResult();
+                result.setPosition(((Integer) row.get("position")).longValue());
+                result.setParentFound(!"ghost".equals(row.get("parentIdentifier")));
+                result.setChildFound(true);
+                result.setRelationshipId("r" + row.get("position"));
+                return result;
+            }).toList();
+        });
+
+        List<AddRelationshipRequest> requests = List.of(
+            relationship("a", "b", null),
+            relationship("ghost", "c", "ADOPTED"),
+            relationship("a", null, null));
+
+        // Act
+        BatchRelationshipResponseDTO response =
+            samuraiService.addParentChildRelationships(requests);
+
+        // Assert
+        assertEquals(1, response.getLinked());
+        assertEquals(List.of(1, 2), response.getSkipped());
+        assertEquals(List.of("ghost"), response.getUnmatchedIdentifiers());
+        verify(samuraiRepository, times(1)).addRelationshipToAncestorStats("r0", List.of());
+    }
+
+    @Test
+    void testAddParentChildRelationshipUpdatesAncestorStatsOnlyWhenCreated() {
+        // Arrange
+        when(samuraiRepository.createParentChildRelationship("a", "b", "BIOLOGICAL"))
+            .thenReturn("r1");
+        when(samuraiRepository.createParentChildRelationship("a", "c", "BIOLOGICAL"))
+            .thenReturn(null);
+        when(samuraiRepository.addRelationshipToAncestorStats("r1", List.of()))
+            .thenReturn(List.of("a", "root"));
+        when(samuraiRepository.updateGenerationDepths(List.of("a")))
+            .thenReturn(List.of(depth("a", "root")));
+        when(samuraiRepository.updateGenerationDepths(List.of("root")))
+            .thenReturn(List.of(depth("root")));
+
+        // Act
+        samuraiService.addParentChildRelationship("a", "b");
+        samuraiService.addParentChildRelationship("a", "c");
+
+        // Assert
+        verify(samuraiRepository, times(1)).addRelationshipToAncestorStats(anyString(), anyList());
+        verify(samuraiRepository, times(2)).updateGenerationDepths(anyList());
+    }
+
+    @Test
+    void testGetSubtreeStatsDerivesDeceasedDescendants() {
+        // Arrange
+        Samurai samurai = samurai("123", "Ieyasu", "Tokugawa");
+        samurai.setDescendantCount(5);
+        samurai.setLivingDescendantCount(2);
+        samurai.setGenerationDepth(3);
+        when(samuraiRepository.findSamuraiByIdentifier("123")).thenReturn(Optional.of(samurai));
+        when(samuraiRepository.findParentIdentifiersByIdentifier("123"))
+            .thenReturn(List.of("p"));
+        when(samuraiRepository.removeSamuraiFromAncestorStats("123")).thenReturn(List.of("p"));
+
+        // Act
+        SubtreeStatsDTO stats = samuraiService.getSubtreeStats("123");
+        samuraiService.deleteSamurai("123");
+
+        // Assert
+        assertEquals(3, stats.getDeceasedDescendantCount());
+        assertEquals(3, stats.getGenerationDepth());
+        verify(samuraiRepository, times(1)).removeSamuraiFromAncestorStats("123");
+        verify(samuraiRepository, times(1)).updateGenerationDepths(List.of("p"));
+    }
+
+    @Test
+    void testGetSamuraiTreeETagChangesWithSubtreeVersionAndBounds() {
+        // Arrange
+        Samurai root = samurai("root", "Ieyasu", "Tokugawa");
+        root.setSubtreeVersion(7L);
+        when(samuraiRepository.findSamuraiByIdentifier("root")).thenReturn(Optional.of(root));
+        OffspringTreeRequest bounded = new OffspringTreeRequest();
+        bounded.setMaxDepth(2);
+        bounded.setRelationshipType("ADOPTED");
+
+        // Act
+        String eTag = samuraiService.getSamuraiTreeETag("root", new OffspringTreeRequest());
+        String boundedETag = samuraiService.getSamuraiTreeETag("root", bounded);
+        samuraiService.addParentChildRelationship("root", "child");
+        root.setSubtreeVersion(8L);
+        String changedETag = samuraiService.getSamuraiTreeETag("root", new OffspringTreeRequest());
+
+        // Assert
+        assertEquals("root-7-100-10000-ALL", eTag);
+        assertEquals("root-7-2-10000-ADOPTED", boundedETag);
+        assertEquals("root-8-100-10000-ALL", changedETag);
+        verify(samuraiRepository, times(1)).bumpVersions(List.of("root", "child"));
+        verify(samuraiRepository, times(2)).findSamuraiByIdentifier("root");
+    }
+
+    private static AddRelationshipRequest relationship(String parentIdentifier,
+        String childIdentifier, String relationshipType) {
+        AddRelationshipRequest request = new AddRelationshipRequest();
+        request.setParentIdentifier(parentIdentifier);
+        request.setChildIdentifier(childIdentifier);
+        request.setRelationshipType(relationshipType);
+        return request;
+    }
+
+    private static SamuraiDepthQueryResult depth(String identifier, String... parentIdentifiers) {
+        SamuraiDepthQueryResult result = new SamuraiDepthQueryResult();
+        result.setIdentifier(identifier);
+        result.setParentIdentifiers(List.of(parentIdentifiers));
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package com.fran.spring_boot_neo4j.singleflight;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    @Test
+    void testConcurrentCallersShareOneExecutionAndItsFailure() throws Exception {
+        // Arrange
+        SingleFlight singleFlight =
+            new SingleFlight("tree", Duration.ofSeconds(5), new SimpleMeterRegistry());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("Neo4j unavailable");
+
+        // Act
+        CompletableFuture<Object> leader = CompletableFuture.supplyAsync(
+            () -> singleFlight.execute("root", () -> {
+                started.countDown();
+                await(release);
+                throw failure;
+            }));
+        started.await();
+        CompletableFuture<Object> follower = CompletableFuture.supplyAsync(
+            () -> singleFlight.execute("root", () -> "not shared"));
+        while (singleFlight.getCoalesced() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        Throwable leaderFailure = assertThrows(ExecutionException.class, leader::get).getCause();
+        Throwable followerFailure =
+            assertThrows(ExecutionException.class, follower::get).getCause();
+        String retried = singleFlight.execute("root", () -> "retried");
+
+        // Assert
+        assertSame(failure, leaderFailure);
+        assertSame(failure, followerFailure);
+        assertEquals("retried", retried);
+        assertEquals(2, singleFlight.getExecuted());
+        assertEquals(1, singleFlight.getCoalesced());
+    }
+
+    @Test
+    void testWaitingCallerTimesOutWhileActionCarriesOn() throws Exception {
+        // Arrange
+        SingleFlight singleFlight =
+            new SingleFlight("tree", Duration.ofMillis(10), new SimpleMeterRegistry());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        // Act
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(
+            () -> singleFlight.execute("root", () -> {
+                runs.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "tree";
+            }));
+        started.await();
+        SingleFlightTimeoutException exception = assertThrows(SingleFlightTimeoutException.class,
+            () -> singleFlight.execute("root", () -> "not shared"));
+        release.countDown();
+
+        // Assert
+        assertEquals("tree", leader.get());
+        assertEquals("tree", exception.getSingleFlightName());
+        assertEquals(1, runs.get());
+        assertEquals(1, singleFlight.getTimedOut());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}